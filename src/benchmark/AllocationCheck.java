@@ -0,0 +1,105 @@
+package benchmark;
+
+import java.util.Collections;
+
+import endless.EndlessLevel;
+import input.Action;
+import input.ActionSource;
+import input.ScriptedActions;
+import level.LevelManager;
+import main.World;
+import utilities.Allocations;
+
+/**
+ * Checks that a tick of World.update allocates nothing once warmed up, for every shipped
+ * level and an endless run, with the movers in a store of movers and without, with nobody
+ * at the keys and with a player stepping side to side. Exits with status 1 if any tick allocated, so it
+ * can gate a build.
+ * Run from the project directory, so the assets can be found.
+ */
+public class AllocationCheck {
+	
+	/* ticks run before measuring, so the JIT has compiled the tick and every pool is full */
+	private static final int WARMUP_TICKS = 20_000;
+	private static final int MEASURED_TICKS = 10_000;
+	/* measured rounds tried, as the JIT may still give up an optimized tick and allocate
+	 * once while it compiles it again */
+	private static final int MAX_ROUNDS = 3;
+	/* time passed per tick, in milliseconds, as at 60 frames per second */
+	private static final int TICK = 16;
+	private static final long SEED = 1;
+	
+	/**
+	 * Run every check and print the bytes allocated by each
+	 * @param args Command-line arguments (ignored).
+	 */
+	public static void main(String[] args) {
+		if (!Allocations.isSupported()) {
+			System.err.println("This JVM can't count allocated bytes");
+			System.exit(1);
+		}
+		
+		//stepping left and right keeps the player on its start row, moving but alive
+		int[] sideSteps = new int[2 * 30];
+		sideSteps[0] = Action.LEFT.mask();
+		sideSteps[30] = Action.RIGHT.mask();
+		
+		boolean passed = true;
+		for (String levelFile : LevelManager.fromManifest(World.MANIFEST, true).getLevelFiles()) {
+			passed &= check("World.update (" + levelFile + ", idle)", levelWorld(levelFile),
+					ActionSource.NONE);
+			passed &= check("World.update (" + levelFile + ", stepping)", levelWorld(levelFile),
+					new ScriptedActions(sideSteps, true));
+		}
+		passed &= check("World.update (no mover store, idle)",
+				new World(LevelManager.fromManifest(World.MANIFEST, false), SEED), ActionSource.NONE);
+		passed &= check("World.update (endless, idle)",
+				new World(EndlessLevel.create(SEED, true), SEED), ActionSource.NONE);
+		
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+	
+	/*
+	 * Create a world playing only one level
+	 */
+	private static World levelWorld(String levelFile) {
+		return new World(new LevelManager(Collections.singletonList(levelFile), true, false), SEED);
+	}
+	
+	/*
+	 * Warm a world up, then measure the bytes its ticks allocate, return true if a round
+	 * allocated none
+	 */
+	private static boolean check(String name, World world, ActionSource actions) {
+		ScriptedActions script = actions instanceof ScriptedActions ? (ScriptedActions) actions : null;
+		for (int i = 0; i < WARMUP_TICKS; i++) {
+			tick(world, actions, script);
+		}
+		
+		long allocated = 0;
+		for (int round = 0; round < MAX_ROUNDS; round++) {
+			long before = Allocations.allocatedBytes();
+			for (int i = 0; i < MEASURED_TICKS; i++) {
+				tick(world, actions, script);
+			}
+			allocated = Allocations.allocatedBytes() - before;
+			if (allocated == 0) {
+				break;
+			}
+		}
+		
+		boolean passed = allocated == 0;
+		System.out.printf("%-50s %10d B over %d ticks %s%n", name, allocated, MEASURED_TICKS,
+				passed ? "ok" : "FAILED");
+		return passed;
+	}
+	
+	private static void tick(World world, ActionSource actions, ScriptedActions script) {
+		if (script != null) {
+			script.nextTick();
+		}
+		world.update(actions, TICK);
+	}
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+import utilities.Allocations;
+
+/**
+ * A small harness measuring the throughput and allocation rate of an operation,
+ * in the spirit of JMH with the gc profiler, that runs without a display or a build tool.
+ * Each operation is warmed up first, then timed over several measured iterations.
+ */
+public class Benchmark {
+	
+	/* iterations run before measuring, so the JIT has compiled the operation */
+	private static final int WARMUP_ITERATIONS = 5;
+	private static final int MEASURED_ITERATIONS = 10;
+	/* time each iteration runs for, in nanoseconds */
+	private static final long ITERATION_NANOS = 200_000_000L;
+	
+	/** Result of every operation is folded into it, so the JIT can't remove the work */
+	public static volatile long sink;
+	
+	/**
+	 * A operation to measure, returning anything derived from its work
+	 */
+	public interface Operation {
+		/**
+		 * Run the operation once
+		 * @return A value derived from the work done
+		 */
+		long run();
+	}
+	
+	private Benchmark() {
+	}
+	
+	/**
+	 * Measure an operation and print one line of results: operations per second,
+	 * nanoseconds per operation and bytes allocated per operation
+	 * @param name Name printed in front of the results
+	 * @param operation The operation to measure
+	 */
+	public static void measure(String name, Operation operation) {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			iterate(operation);
+		}
+		
+		long ops = 0;
+		long nanos = 0;
+		long bytes = 0;
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			long allocatedBefore = Allocations.allocatedBytes();
+			long start = System.nanoTime();
+			long done = iterate(operation);
+			nanos += System.nanoTime() - start;
+			bytes += Allocations.allocatedBytes() - allocatedBefore;
+			ops += done;
+		}
+		
+		System.out.printf("%-40s %14.1f ops/s %12.1f ns/op %10.1f B/op%n", name, 
+				ops * 1e9 / nanos, (double) nanos / ops, (double) bytes / ops);
+	}
+	
+	/**
+	 * Print the header of the result table
+	 */
+	public static void printHeader() {
+		System.out.printf("%-40s %20s %18s %15s%n", "Benchmark", "Throughput", "Latency", "Allocation");
+	}
+	
+	/*
+	 * Run the operation for one iteration, return the number of times it ran
+	 */
+	private static long iterate(Operation operation) {
+		long count = 0;
+		long result = 0;
+		long end = System.nanoTime() + ITERATION_NANOS;
+		
+		//check the clock every 64 operations, so reading it doesn't dominate tiny operations
+		while (System.nanoTime() < end) {
+			for (int i = 0; i < 64; i++) {
+				result += operation.run();
+			}
+			count += 64;
+		}
+		sink += result;
+		
+		return count;
+	}
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import character.Player;
+import endless.EndlessLevel;
+import input.ActionSource;
+import main.World;
+
+/**
+ * Checks that a player dying in an endless run starts again somewhere safe. Each run is
+ * scrolled on until the start row may be a road or a river, the player is put back on it
+ * and left idle: it may die once, but never again once it started over.
+ * Exits with status 1 if a run died more than once, so it can gate a build.
+ * Run from the project directory, so the assets can be found.
+ */
+public class EndlessCheck {
+	
+	private static final int NUM_SEEDS = 40;
+	/* ticks each run is left idle, ten seconds at 60 frames per second */
+	private static final int TICKS = 600;
+	/* time passed per tick, in milliseconds, as at 60 frames per second */
+	private static final int TICK = 16;
+	
+	/**
+	 * Run the check for every seed and print how many runs started on an unsafe row
+	 * @param args Command-line arguments (ignored).
+	 */
+	public static void main(String[] args) {
+		int unsafeStarts = 0;
+		boolean passed = true;
+		for (long seed = 0; seed < NUM_SEEDS; seed++) {
+			EndlessLevel level = EndlessLevel.create(seed, true);
+			World world = new World(level, seed);
+			Player player = world.getPlayer();
+			
+			//the top of screen is past the middle, so each call scrolls half a screen
+			for (int i = 0; i <= seed % 2; i++) {
+				player.setPosition(World.PLAYER_INIT_X, 0);
+				level.scrollWith(player);
+			}
+			player.setPosition(World.PLAYER_INIT_X, World.PLAYER_INIT_Y);
+			
+			for (int i = 0; i < TICKS && !world.isGameOver(); i++) {
+				world.update(ActionSource.NONE, TICK);
+			}
+			
+			if (player.getDeaths() > 0) {
+				unsafeStarts++;
+			}
+			if (player.getDeaths() > 1 || world.isGameOver()) {
+				System.out.printf("seed %d: %d deaths%s FAILED%n", seed, player.getDeaths(),
+						world.isGameOver() ? ", game over" : "");
+				passed = false;
+			}
+		}
+		
+		System.out.printf("%d runs, %d started on a road or a river, %s%n", NUM_SEEDS, unsafeStarts,
+				passed ? "ok" : "FAILED");
+		if (!passed) {
+			System.exit(1);
+		}
+	}
+}
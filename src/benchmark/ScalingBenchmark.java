@@ -0,0 +1,134 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Locale;
+
+import input.ActionSource;
+import level.LevelGenerator;
+import level.LevelManager;
+import main.World;
+import metrics.LatencyHistogram;
+import utilities.Allocations;
+
+/**
+ * Measures how a tick of World.update and the memory of a world grow with the number of
+ * objects of its level, from a thousand to a million, on levels written by LevelGenerator.
+ * Every size prints one point of the curve; given a file, the curve is also written there
+ * as csv, so runs of different commits can be compared.
+ * Run from the project directory, with a heap large enough for the largest level.
+ */
+public class ScalingBenchmark {
+	
+	/* number of objects of each level measured */
+	private static final int[] SIZES = {1_000, 3_000, 10_000, 30_000, 100_000, 300_000, 1_000_000};
+	/* movers in every lane of the generated levels, about twice the shipped levels */
+	private static final int MOVERS_PER_LANE = 8;
+	/* time passed per tick, in milliseconds, as at 60 frames per second */
+	private static final int TICK = 16;
+	/* time ticks run for before and while measuring, in nanoseconds */
+	private static final long WARMUP_NANOS = 1_000_000_000L;
+	private static final long MEASURE_NANOS = 2_000_000_000L;
+	/* fewest ticks measured, however slow they are */
+	private static final int MIN_TICKS = 20;
+	private static final long SEED = 42;
+	
+	private static final String HEADER = "objects,lanes,ticks,mean_us,p50_us,p99_us,max_us,"
+			+ "alloc_b_per_tick,heap_kb,heap_b_per_object";
+	
+	/**
+	 * Measure every size and print the curve
+	 * @param args Optionally a pathway to a csv file the curve is written to
+	 * @throws IOException If a level or the csv file can't be written
+	 */
+	public static void main(String[] args) throws IOException {
+		PrintWriter csv = args.length > 0 ? new PrintWriter(args[0]) : null;
+		if (csv != null) {
+			csv.println(HEADER);
+		}
+		System.out.printf("%10s %8s %8s %12s %12s %12s %12s %12s %12s %10s%n", "Objects", "Lanes",
+				"Ticks", "Mean us", "p50 us", "p99 us", "Max us", "B/tick", "Heap KB", "B/object");
+		
+		try {
+			for (int size : SIZES) {
+				String line = measure(size);
+				if (csv != null) {
+					csv.println(line);
+					csv.flush();
+				}
+			}
+		} finally {
+			if (csv != null) {
+				csv.close();
+			}
+		}
+	}
+	
+	/*
+	 * Measure one level of about a number of objects, print the results and return them
+	 * as a line of csv
+	 */
+	private static String measure(int size) throws IOException {
+		LevelGenerator generator = new LevelGenerator(MOVERS_PER_LANE, SEED);
+		int lanes = generator.lanesFor(size);
+		File file = File.createTempFile("scaling-" + size + "-", ".lvl");
+		file.deleteOnExit();
+		
+		try {
+			generator.write(file.getPath(), lanes);
+			
+			long heapBefore = usedHeap();
+			LevelManager levels = new LevelManager(Collections.singletonList(file.getPath()), true, false);
+			World world = new World(levels, SEED);
+			long heap = usedHeap() - heapBefore;
+			int objects = world.getSprites().size();
+			
+			long end = System.nanoTime() + WARMUP_NANOS;
+			while (System.nanoTime() < end) {
+				world.update(ActionSource.NONE, TICK);
+			}
+			
+			LatencyHistogram ticks = new LatencyHistogram();
+			long total = 0;
+			long allocatedBefore = Allocations.allocatedBytes();
+			end = System.nanoTime() + MEASURE_NANOS;
+			while (System.nanoTime() < end || ticks.getCount() < MIN_TICKS) {
+				long start = System.nanoTime();
+				world.update(ActionSource.NONE, TICK);
+				long nanos = System.nanoTime() - start;
+				ticks.record(nanos);
+				total += nanos;
+			}
+			long allocated = Allocations.allocatedBytes() - allocatedBefore;
+			Benchmark.sink += world.getSprites().size();
+			
+			long count = ticks.getCount();
+			double mean = total / 1e3 / count;
+			double p50 = ticks.getPercentile(50) / 1e3;
+			double p99 = ticks.getPercentile(99) / 1e3;
+			double max = ticks.getMax() / 1e3;
+			double perTick = (double) allocated / count;
+			double perObject = (double) heap / objects;
+			
+			System.out.printf("%10d %8d %8d %12.1f %12.1f %12.1f %12.1f %12.1f %12d %10.1f%n", objects,
+					lanes, count, mean, p50, p99, max, perTick, heap / 1024, perObject);
+			return String.format(Locale.ROOT, "%d,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%d,%.1f", objects, 
+					lanes, count, mean, p50, p99, max, perTick, heap / 1024, perObject);
+		} finally {
+			file.delete();
+		}
+	}
+	
+	/*
+	 * Heap in use once the garbage has been collected, as far as the JVM lets it be forced
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,102 @@
+package benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import character.ExtraLife;
+import character.Player;
+import input.ActionSource;
+import level.LevelManager;
+import main.App;
+import main.LaneIndex;
+import main.Sprite;
+import main.Tile;
+import main.World;
+import utilities.BoundingBox;
+
+/**
+ * Headless benchmarks of the simulation hot paths, from single bounding box tests up to
+ * a whole World.update tick of the shipped levels.
+ * Run from the project directory, so the assets can be found.
+ */
+public class SimulationBenchmarks {
+	
+	/* time passed per tick, in milliseconds, as at 60 frames per second */
+	private static final int TICK = 16;
+	/* number of sprites in each level of the lane query benchmark */
+	private static final int[] LANE_QUERY_SIZES = {240, 2400, 24000, 240000};
+	
+	/**
+	 * Run every benchmark and print the results
+	 * @param args Command-line arguments (ignored).
+	 */
+	public static void main(String[] args) {
+		Benchmark.printHeader();
+		
+		BoundingBox a = new BoundingBox(100, 100, App.TILE_SIZE, App.TILE_SIZE);
+		BoundingBox b = new BoundingBox(130, 100, App.TILE_SIZE, App.TILE_SIZE);
+		Benchmark.measure("BoundingBox.intersects", () -> a.intersects(b) ? 1 : 0);
+		Benchmark.measure("BoundingBox.atFrontOf", () -> a.atFrontOf(b) ? 1 : 0);
+		
+		Sprite tree = Tile.createTreeTile(0, 0);
+		Benchmark.measure("Sprite.hasTag", () -> tree.hasTag(Sprite.SOLID) ? 1 : 0);
+		Benchmark.measure("Sprite.hasTag (any of two)", 
+				() -> tree.hasTag(Sprite.RIDEABLE | Sprite.LIMITRIDEABLE) ? 1 : 0);
+		
+		//the player stays at its start, so the whole level is scanned without contact
+		World level0 = new World();
+		ArrayList<Sprite> sprites = level0.getSprites();
+		Player player = level0.getPlayer();
+		ExtraLife extraLife = level0.getExtraLife();
+		Benchmark.measure("Player.isDead (whole level)", () -> {
+			player.isDead(sprites);
+			return player.getLives().size();
+		});
+		Benchmark.measure("Player.riding (whole level)", () -> player.riding(sprites, TICK) ? 1 : 0);
+		Benchmark.measure("ExtraLife.findRideObject", () -> extraLife.findRideObject(sprites));
+		
+		for (String levelFile : LevelManager.fromManifest(World.MANIFEST, true).getLevelFiles()) {
+			measureTick("World.update (" + new File(levelFile).getName() + ")", levelFile);
+		}
+		
+		for (int size : LANE_QUERY_SIZES) {
+			measureLaneQuery(size);
+		}
+	}
+	
+	/*
+	 * Measure a whole tick of a world playing one level, with nobody pressing anything
+	 */
+	private static void measureTick(String name, String levelFile) {
+		World world = new World(new LevelManager(Collections.singletonList(levelFile), true, false), 
+				System.nanoTime());
+		Benchmark.measure(name, () -> {
+			world.update(ActionSource.NONE, TICK);
+			return world.getSprites().size();
+		});
+	}
+	
+	/*
+	 * Measure a query around one sprite in a level of many rows of tiles,
+	 * the cost should not grow with the size of the level
+	 */
+	private static void measureLaneQuery(int size) {
+		int perRow = App.SCREEN_WIDTH / App.TILE_SIZE + 1;
+		ArrayList<Sprite> sprites = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			sprites.add(Tile.createGrassTile((i % perRow) * App.TILE_SIZE, (i / perRow) * App.TILE_SIZE));
+		}
+		
+		LaneIndex lanes = new LaneIndex();
+		lanes.rebuild(sprites);
+		Sprite probe = Tile.createGrassTile(App.SCREEN_WIDTH / 2, 
+				(size / perRow / 2) * App.TILE_SIZE);
+		ArrayList<Sprite> result = new ArrayList<>();
+		
+		Benchmark.measure("LaneIndex.queryAround (" + size + " sprites)", () -> {
+			lanes.queryAround(probe, App.TILE_SIZE, result);
+			return result.size();
+		});
+	}
+}
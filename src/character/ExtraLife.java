@@ -1,13 +1,13 @@
 package character;
 
-import org.newdawn.slick.SlickException;
-
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
-import org.newdawn.slick.Input;
+import input.ActionSource;
 
 import main.App;
 import main.Sprite;
+import utilities.Rng;
 
 /**
  * A class represents all the extra life objects in the game.
@@ -39,25 +39,28 @@ public class ExtraLife extends Sprite {
 	private int moveTime;
 	private int existTime;
 	private boolean moveRight;
+	// random source of the world this extra life is in
+	private Rng rng;
 
 	/**
 	 * Create a new extra life object with xy coordinate
 	 * @param x X coordinate of the center
 	 * @param y Y coordinate of the center
-	 * @throws SlickException
+	 * @param rng The random source of the world, deciding when and where it shows up
 	 */
-	public ExtraLife(float x, float y) throws SlickException {
+	public ExtraLife(float x, float y, Rng rng) {
 		super(EXTRALIFE_PATH, x, y);
+		this.rng = rng;
 		this.reset();
 	}
 	
 	/**
 	 * Update the state, time count of extra life for a frame.
-	 * @param input A wrapped for all keyboard, mouse and controller input
+	 * @param actions The actions asked for by whoever controls the game
 	 * @param delta Time passed since last frame (milliseconds).
 	 * @param sprites All the sprites instances in the current world
 	 */
-	public void update(Input input, int delta, ArrayList<Sprite> sprites) {
+	public void update(ActionSource actions, int delta, ArrayList<Sprite> sprites) {
 		if (existTime >= showUpTime) {
 			moveTime += delta;
 			
@@ -65,8 +68,9 @@ public class ExtraLife extends Sprite {
 			if (rideObject == -1) {
 				rideObject = findRideObject(sprites);
 			}
-			//move along the object one tile every 2 sec
-			if (moveTime > MOVE_TIME) {
+			//move along the object one tile every 2 sec, a screen with nothing rideable
+			//leaves it hidden until it tries again next frame
+			if (moveTime > MOVE_TIME && rideObject != -1) {
 				moveAlong(sprites.get(rideObject));
 				
 				moveTime = 0;
@@ -85,38 +89,53 @@ public class ExtraLife extends Sprite {
 	}
 	
 	@Override
-	public void render() throws SlickException {
-		if (existTime >= showUpTime && rideObject != -1) {
-			super.render();
-		}
+	public void writeState(ByteBuffer buffer) {
+		super.writeState(buffer);
+		buffer.putInt(rideObject).putFloat(relativeLoca).putInt(showUpTime).putInt(moveTime)
+				.putInt(existTime).put((byte) (moveRight ? 1 : 0));
+	}
+	
+	@Override
+	public void readState(ByteBuffer buffer) {
+		super.readState(buffer);
+		rideObject = buffer.getInt();
+		relativeLoca = buffer.getFloat();
+		showUpTime = buffer.getInt();
+		moveTime = buffer.getInt();
+		existTime = buffer.getInt();
+		moveRight = buffer.get() != 0;
+	}
+	
+	@Override
+	public boolean isVisible() {
+		return existTime >= showUpTime && rideObject != -1;
 	}
 	
 	/**
 	 * Find the index of rideable object the extra life is going to ride on.
 	 * @param sprites A arrayList of sprite which exist in the current game
-	 * @return The index of rideable object in arraylist that extra life is going to ride.
+	 * @return The index of rideable object in arraylist that extra life is going to ride,
+	 * -1 if there is none.
 	 */
 	public int findRideObject(ArrayList<Sprite> sprites) {
 		//get the total number of rideable object
 		int numRide = 0;
-		for (Sprite i: sprites) {
-			if (i.hasTag(Sprite.RIDEABLE)) {
+		for (int i = 0; i < sprites.size(); i++) {
+			if (sprites.get(i).hasTag(Sprite.RIDEABLE)) {
 				numRide++;
 			}
 		}
 		
-		int ride = (int) ((Math.random() * 10) * numRide) + 1;
+		int ride = (int) (rng.nextDouble() * numRide) + 1;
 		
 		// get the index of rideable object in arraylist
-		int n = 0;
-		for (Sprite i: sprites) {
-			if (i.hasTag(Sprite.RIDEABLE)) {
+		for (int n = 0; n < sprites.size(); n++) {
+			if (sprites.get(n).hasTag(Sprite.RIDEABLE)) {
 				ride--;
 				if (ride == 0) {
 					return n;
 				}
 			}
-			n++;
 		}
 		
 		return -1;
@@ -130,8 +149,8 @@ public class ExtraLife extends Sprite {
 	 */
 	public void riding(int delta, Sprite rideObject) {
 		if (rideObject != null) {
-			float newX = rideObject.getPosition().getX() + relativeLoca;
-			float newY = rideObject.getPosition().getY();
+			float newX = rideObject.getX() + relativeLoca;
+			float newY = rideObject.getY();
 			this.setPosition(newX, newY);
 		}
 	}
@@ -144,9 +163,9 @@ public class ExtraLife extends Sprite {
 	 */
 	public void moveAlong(Sprite object) {
 		if (object != null) {
-			float objectX = object.getPosition().getX();
-			float objectRight = object.getBox().getRight();
-			float objectLeft = object.getBox().getLeft();
+			float objectX = object.getX();
+			float objectRight = object.getRight();
+			float objectLeft = object.getLeft();
 			
 			if (moveRight) {
 				if (objectX + relativeLoca + App.TILE_SIZE < objectRight) {
@@ -179,17 +198,18 @@ public class ExtraLife extends Sprite {
 	public void reset() {
 		moveRight = true;
 		moveTime = 0;
-		showUpTime = (int) ((Math.random() * EXTRALIFE_SHOW_DURATION) + EXTRALIFE_SHOW_LEAST);
+		showUpTime = (int) ((rng.nextDouble() * EXTRALIFE_SHOW_DURATION) + EXTRALIFE_SHOW_LEAST);
 		this.relativeLoca = 0;
 		existTime = 0;
 		rideObject = -1;
 	}
 	
 	/**
-	 * Check whether a extra life is exist (should show up on screen).
+	 * Check whether a extra life is exist (should show up on screen), which needs an
+	 * object to ride on.
 	 * @return True if extra life is exist.
 	 */
 	public boolean exist() {
-		return (existTime >= showUpTime);
+		return (existTime >= showUpTime) && rideObject != -1;
 	}
 }
@@ -1,10 +1,12 @@
 package character;
 
-import org.newdawn.slick.SlickException;
-import org.newdawn.slick.Input;
-
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 
+import input.Action;
+import input.ActionSource;
+
 import main.App;
 import main.Sprite;
 import main.Tile;
@@ -26,44 +28,53 @@ public class Player extends Sprite {
 	private static final float LIVES_INIT_X = 24;
 	private static final float LIVES_X_SPACE = 32;
 	private static final float LIVES_Y = 744;
+	/* lives tiles made up front beyond the lives at start, for lives picked up later */
+	private static final int NUM_SPARE_LIVES = 5;
 	
 	private ArrayList<Sprite> lives = new ArrayList<>();
+	// lives tiles not shown, reused when a live is added
+	private ArrayDeque<Sprite> spareLives = new ArrayDeque<>();
+	// whether the player died with no live left
+	private boolean gameOver;
+	// number of times the player died
+	private int deaths;
+	// where the player starts again after a death
+	private float respawnX = World.PLAYER_INIT_X;
+	private float respawnY = World.PLAYER_INIT_Y;
+	
+	// reused every frame so moving the player allocates nothing
+	private Position target = new Position(0, 0);
+	private BoundingBox targetBox = new BoundingBox(0, 0, App.TILE_SIZE, App.TILE_SIZE);
 	
 	/**
 	 * Create a new player object with xy coordinate
 	 * @param x X coordinate of the center
 	 * @param y Y coordinate of the center
-	 * @throws SlickException
 	 */
-	public Player(float x, float y) throws SlickException {
+	public Player(float x, float y) {
 		super(PLAYER_PATH, x, y);
 		
+		//every lives tile is made now, so gaining and losing lives during play allocates nothing
+		for (int i = 0; i < NUM_INIT_LIVES + NUM_SPARE_LIVES; i++) {
+			spareLives.push(Tile.createLivesTile(0, LIVES_Y));
+		}
 		for (int i = 0; i < NUM_INIT_LIVES; i++) {
-			lives.add(Tile.createLivesTile(LIVES_INIT_X + LIVES_X_SPACE * i, LIVES_Y));
+			addLive();
 		}
 	}
 	
 	/**
 	 * Update the state of player for a frame.
-	 * @param input A wrapped for all keyboard, mouse and controller input
+	 * @param actions The actions asked for by whoever controls the game
 	 * @param delta Time passed since last frame (milliseconds).
-	 * @param sprites All the sprites in the current world
+	 * @param sprites The sprites around the player in the current world
 	 */
-	public void update(Input input, int delta, ArrayList<Sprite> sprites) {
-		Position newPos = control(input);
+	public void update(ActionSource actions, int delta, ArrayList<Sprite> sprites) {
+		control(actions, target);
 		
 		//player can't move out of screen or move into a solid item
-		if (!outOfScreen(newPos) && !moveToSolid(newPos, sprites)) {
-			setPosition(newPos);
-		}
-	}
-	
-	@Override
-	public void render() throws SlickException {
-		super.render();
-		
-		for (Sprite live: lives) {
-			live.render();
+		if (!outOfScreen(target) && !moveToSolid(target, sprites)) {
+			setPosition(target);
 		}
 	}
 	
@@ -72,9 +83,9 @@ public class Player extends Sprite {
 	 * @return True if player reach the empty tiles at top
 	 */
 	public boolean arrive() {
-		if (this.getPosition().getY() <= World.ARRIVEDPLAYER_Y) {
-			float x = this.getPosition().getX();
-			float y = this.getPosition().getY();
+		if (this.getY() <= World.ARRIVEDPLAYER_Y) {
+			float x = this.getX();
+			float y = this.getY();
 			for (float i: World.ARRIVEDPLAYER_X) {
 				if (Math.abs(i - x) < App.TILE_SIZE * 2) {
 					x = i;
@@ -95,15 +106,14 @@ public class Player extends Sprite {
 	 * @return True If player is riding something rideable
 	 */
 	public boolean riding(ArrayList<Sprite> sprites, int delta) {
-		for (Sprite sprite: sprites) {
-			if (this.contactSprite(sprite) && ( sprite.hasTag(Sprite.RIDEABLE) || 
-					sprite.hasTag(Sprite.LIMITRIDEABLE) ) && sprite.shouldAppear()) {
-				
-				Position position = sprite.beRideBy(this, delta);
+		for (int i = 0; i < sprites.size(); i++) {
+			Sprite sprite = sprites.get(i);
+			if (this.contactSprite(sprite) && sprite.hasTag(Sprite.RIDEABLE | Sprite.LIMITRIDEABLE) 
+					&& sprite.shouldAppear()) {
 				
 				//player can't move out of screen when riding some thing
-				if (!outOfScreen(position)) {
-					this.setPosition(position);
+				if (sprite.beRideBy(this, delta, target) && !outOfScreen(target)) {
+					this.setPosition(target);
 				}
 				return true;
 			}
@@ -114,72 +124,175 @@ public class Player extends Sprite {
 	
 	/**
 	 * Check if the player is dead, if is subtract a live
-	 * if live count is 0 and player dead, game over
+	 * if live count is 0 and player dead, game over. A player dies at most once a check,
+	 * as dying sends it back to where it starts again.
+	 * A player staying where it was is hit by any hazard passing through it during the
+	 * update, a player that just hopped only by the hazards where it landed
 	 * @param sprites List of sprites that in the same world with player
 	 */
 	public void isDead(ArrayList<Sprite> sprites) {
-		for (Sprite sprite: sprites) {
-			if (this.contactSprite(sprite) && sprite.hasTag(Sprite.HAZARD) || 
-					outOfScreen(this.getPosition())) {
-				
-				if (lives.size() > 0) {
-					lives.remove(lives.size() - 1);
-					this.setPosition(World.PLAYER_INIT_X, World.PLAYER_INIT_Y);
-				}
-				else {
-					System.exit(0);
-				}
+		if (outOfScreen(this.getX(), this.getY())) {
+			loseLive();
+			return;
+		}
+		
+		boolean stayed = getX() == getPreviousX() && getY() == getPreviousY();
+		for (int i = 0; i < sprites.size(); i++) {
+			Sprite sprite = sprites.get(i);
+			if (sprite.hasTag(Sprite.HAZARD) 
+					&& (stayed ? this.sweptContact(sprite) : this.contactSprite(sprite))) {
+				loseLive();
+				return;
 			}
 		}
 	}
 	
+	@Override
+	public void writeState(ByteBuffer buffer) {
+		super.writeState(buffer);
+		buffer.putInt(lives.size()).putInt(deaths).put((byte) (gameOver ? 1 : 0));
+	}
+	
+	@Override
+	public void readState(ByteBuffer buffer) {
+		super.readState(buffer);
+		int numLives = buffer.getInt();
+		deaths = buffer.getInt();
+		gameOver = buffer.get() != 0;
+		
+		while (lives.size() > numLives) {
+			removeLive();
+		}
+		while (lives.size() < numLives) {
+			addLive();
+		}
+	}
+	
+	/**
+	 * Put the player back at its start with every live it starts with, for a new game
+	 */
+	public void reset() {
+		setPosition(World.PLAYER_INIT_X, World.PLAYER_INIT_Y);
+		savePrevious();
+		deaths = 0;
+		gameOver = false;
+		while (lives.size() > NUM_INIT_LIVES) {
+			removeLive();
+		}
+		while (lives.size() < NUM_INIT_LIVES) {
+			addLive();
+		}
+	}
+	
+	/**
+	 * Get the lives tiles of the player, shown at the bottom of screen
+	 * @return A list of one tile per remaining live
+	 */
+	public ArrayList<Sprite> getLives() {
+		return lives;
+	}
+	
+	/**
+	 * Check whether the player died with no live left
+	 * @return True if the game is over
+	 */
+	public boolean isGameOver() {
+		return gameOver;
+	}
+	
+	/**
+	 * Get the number of times the player died, the last death included
+	 * @return Number of deaths
+	 */
+	public int getDeaths() {
+		return deaths;
+	}
+	
+	/**
+	 * Set where the player starts again after its next death
+	 * @param x X coordinate of the center
+	 * @param y Y coordinate of the center
+	 */
+	public void setRespawn(float x, float y) {
+		respawnX = x;
+		respawnY = y;
+	}
+	
 	/**
 	 * Add a new live to player
-	 * @throws SlickException 
 	 */
-	public void addLive() throws SlickException {
-		lives.add(Tile.createLivesTile(LIVES_INIT_X + LIVES_X_SPACE * (lives.size()), LIVES_Y));
+	public void addLive() {
+		float x = LIVES_INIT_X + LIVES_X_SPACE * (lives.size());
+		Sprite live = spareLives.poll();
+		if (live == null) {
+			live = Tile.createLivesTile(x, LIVES_Y);
+		}
+		else {
+			live.respawn(x, LIVES_Y, false);
+		}
+		lives.add(live);
+	}
+	
+	/*
+	 * Take the last lives tile off screen, keeping it for a live added later
+	 */
+	private void removeLive() {
+		spareLives.push(lives.remove(lives.size() - 1));
+	}
+	
+	/*
+	 * Subtract a live and send player back to where it starts again, game over if there is
+	 * no live left
+	 */
+	private void loseLive() {
+		deaths++;
+		if (lives.size() > 0) {
+			removeLive();
+			this.setPosition(respawnX, respawnY);
+		}
+		else {
+			gameOver = true;
+		}
 	}
 	
 	/*
 	 * Control the player based on input, one tile a time
-	 * return the new position the player is going to move in
+	 * write the new position the player is going to move in into result
 	 */
-	private Position control (Input input) {
-		float x = getPosition().getX();
-		float y = getPosition().getY();
+	private void control (ActionSource actions, Position result) {
+		float x = getX();
+		float y = getY();
 		float newY = y;
 		float newX = x;
 		
 		//set newX or newY based on the move
-		if (input.isKeyPressed(Input.KEY_UP)) {
+		if (actions.isPressed(Action.UP)) {
 			newY = y - App.TILE_SIZE;
 		}
-		if (input.isKeyPressed(Input.KEY_DOWN)) {
+		if (actions.isPressed(Action.DOWN)) {
 			newY = y + App.TILE_SIZE;
 		}
-		if (input.isKeyPressed(Input.KEY_LEFT)) {
+		if (actions.isPressed(Action.LEFT)) {
 			newX = x - App.TILE_SIZE;
 		}
-		if (input.isKeyPressed(Input.KEY_RIGHT)) {
+		if (actions.isPressed(Action.RIGHT)) {
 			newX = x + App.TILE_SIZE;
 		}
 		
-		Position position = new Position(newX, newY);
-		
-		return position;
+		result.setX(newX);
+		result.setY(newY);
 	}
 	
 	/*
 	 * Check if the position is moving out of screen
 	 */
 	private boolean outOfScreen(Position position) {
-		if (position == null) {
-			return false;
-		}
-		
-		float left = position.getX() - App.TILE_SIZE / 2;
-		float up = position.getY() - App.TILE_SIZE / 2;
+		return outOfScreen(position.getX(), position.getY());
+	}
+	
+	private boolean outOfScreen(float x, float y) {
+		float left = x - App.TILE_SIZE / 2;
+		float up = y - App.TILE_SIZE / 2;
 		
 		boolean movingOut = (up < 0 || (up + App.TILE_SIZE) > App.SCREEN_HEIGHT || 
 				left < 0 || (left + App.TILE_SIZE) > App.SCREEN_WIDTH);
@@ -191,11 +304,13 @@ public class Player extends Sprite {
 	 * Check if the position is moving towards solid item
 	 */
 	private boolean moveToSolid (Position position, ArrayList<Sprite> sprites) {
-		BoundingBox newBox = new BoundingBox(position.getX(), position.getY(), 
-				App.TILE_SIZE, App.TILE_SIZE);
+		targetBox.setX(position.getX());
+		targetBox.setY(position.getY());
 		
-		for (Sprite sprite: sprites) {
-			if (newBox.intersects(sprite.getBox()) && sprite.hasTag(Sprite.SOLID)) {
+		for (int i = 0; i < sprites.size(); i++) {
+			Sprite sprite = sprites.get(i);
+			if (targetBox.intersects(sprite.getLeft(), sprite.getTop(), sprite.getRight(), 
+					sprite.getBottom()) && sprite.hasTag(Sprite.SOLID)) {
 				return true;
 			}
 		}
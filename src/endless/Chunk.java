@@ -0,0 +1,41 @@
+package endless;
+
+import java.util.ArrayList;
+
+import level.EntityType;
+import main.Sprite;
+
+/**
+ * The sprites of one generated lane and their kinds, reused from one lane to the next.
+ */
+class Chunk {
+	
+	final ArrayList<Sprite> sprites = new ArrayList<>();
+	final ArrayList<EntityType> types = new ArrayList<>();
+	
+	/*
+	 * Add a sprite of a kind to the lane
+	 */
+	void add(EntityType type, Sprite sprite) {
+		types.add(type);
+		sprites.add(sprite);
+	}
+	
+	/*
+	 * Check whether the lane is a grass median, where the player is safe
+	 */
+	boolean isMedian() {
+		return !types.isEmpty() && types.get(0) == EntityType.GRASS;
+	}
+	
+	/*
+	 * Give every sprite of the lane back to a pool, leaving the chunk empty
+	 */
+	void recycle(SpritePool pool) {
+		for (int i = 0; i < sprites.size(); i++) {
+			pool.free(types.get(i), sprites.get(i));
+		}
+		sprites.clear();
+		types.clear();
+	}
+}
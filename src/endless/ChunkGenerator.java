@@ -0,0 +1,146 @@
+package endless;
+
+import java.nio.ByteBuffer;
+
+import level.EntityType;
+import main.App;
+import main.Sprite;
+import main.World;
+import utilities.Rng;
+
+/**
+ * Makes up the lanes of an endless run from a seed, one above the other.
+ * Runs of roads and rivers, two to four lanes each, are separated by grass medians
+ * with a few trees, so the same seed always gives the same lanes. No tree grows in the
+ * column the player starts in, so any median is a safe place to start again.
+ */
+public class ChunkGenerator {
+	
+	/* lanes of grass at the start of a run */
+	private static final int START_MEDIANS = 2;
+	private static final int MIN_RUN = 2;
+	private static final int MAX_RUN = 4;
+	/* most trees on a median, so there is always a way through */
+	private static final int MAX_TREES = 4;
+	/* gap between two movers of a lane, in tiles */
+	private static final int MIN_GAP = 2;
+	private static final int MAX_GAP = 6;
+	
+	private static final EntityType[] ROAD = {EntityType.BUS, EntityType.BUS, EntityType.RACECAR, 
+			EntityType.BULLDOZER, EntityType.BIKE};
+	private static final EntityType[] RIVER = {EntityType.LOG, EntityType.LOG, EntityType.LONG_LOG, 
+			EntityType.TURTLE};
+	
+	private static final int MEDIAN = 0;
+	private static final int ROAD_RUN = 1;
+	private static final int RIVER_RUN = 2;
+	
+	private long seed;
+	private Rng rng;
+	
+	// kind of the lanes being generated, and how many lanes of it are left
+	private int kind = MEDIAN;
+	private int left = START_MEDIANS;
+	// number of lanes generated so far
+	private long generated;
+	
+	/**
+	 * Create a generator of lanes
+	 * @param seed Seed of every lane generated
+	 */
+	public ChunkGenerator(long seed) {
+		this.seed = seed;
+		rng = new Rng(seed);
+	}
+	
+	/*
+	 * Write where the generator is in its run of lanes
+	 */
+	void writeState(ByteBuffer buffer) {
+		buffer.putLong(seed).putLong(rng.getState()).putInt(kind).putInt(left).putLong(generated);
+	}
+	
+	/*
+	 * Read back the state written by writeState, into a generator of the same seed
+	 */
+	void readState(ByteBuffer buffer) {
+		if (buffer.getLong() != seed) {
+			throw new IllegalArgumentException("State is of an endless level of a different seed");
+		}
+		rng.setState(buffer.getLong());
+		kind = buffer.getInt();
+		left = buffer.getInt();
+		generated = buffer.getLong();
+	}
+	
+	/*
+	 * Fill an empty chunk with the sprites of the next lane up, taken from a pool
+	 */
+	void fill(Chunk chunk, float y, SpritePool pool) {
+		if (left == 0) {
+			if (kind == MEDIAN) {
+				kind = rng.nextDouble() < 0.5 ? ROAD_RUN : RIVER_RUN;
+				left = MIN_RUN + (int) (rng.nextDouble() * (MAX_RUN - MIN_RUN + 1));
+			}
+			else {
+				kind = MEDIAN;
+				left = 1;
+			}
+		}
+		left--;
+		generated++;
+		
+		switch (kind) {
+			case ROAD_RUN:
+				movers(chunk, y, pick(ROAD), pool);
+				break;
+			case RIVER_RUN:
+				tiles(chunk, y, EntityType.WATER, pool);
+				movers(chunk, y, pick(RIVER), pool);
+				break;
+			default:
+				tiles(chunk, y, EntityType.GRASS, pool);
+				//the player starts on a clear median
+				int trees = generated <= START_MEDIANS ? 0 : (int) (rng.nextDouble() * (MAX_TREES + 1));
+				for (int i = 0; i < trees; i++) {
+					int column = (int) (rng.nextDouble() * (App.SCREEN_WIDTH / App.TILE_SIZE));
+					if (Math.abs(column * App.TILE_SIZE - World.PLAYER_INIT_X) >= App.TILE_SIZE) {
+						chunk.add(EntityType.TREE, 
+								pool.obtain(EntityType.TREE, column * App.TILE_SIZE, y, false));
+					}
+				}
+				break;
+		}
+	}
+	
+	/*
+	 * Fill a lane with tiles of a kind, from edge to edge of screen
+	 */
+	private static void tiles(Chunk chunk, float y, EntityType type, SpritePool pool) {
+		for (int x = 0; x <= App.SCREEN_WIDTH; x += App.TILE_SIZE) {
+			chunk.add(type, pool.obtain(type, x, y, false));
+		}
+	}
+	
+	/*
+	 * Fill a lane with movers of a kind, all going the same way with random gaps between them
+	 */
+	private void movers(Chunk chunk, float y, EntityType type, SpritePool pool) {
+		boolean moveRight = rng.nextDouble() < 0.5;
+		float x = (float) (rng.nextDouble() * MAX_GAP * App.TILE_SIZE);
+		
+		while (x < App.SCREEN_WIDTH) {
+			Sprite mover = pool.obtain(type, x, y, moveRight);
+			chunk.add(type, mover);
+			int gap = MIN_GAP + (int) (rng.nextDouble() * (MAX_GAP - MIN_GAP + 1));
+			x += mover.getWidth() + gap * App.TILE_SIZE;
+		}
+	}
+	
+	/*
+	 * Pick one of some kinds at random
+	 */
+	private EntityType pick(EntityType[] types) {
+		return types[(int) (rng.nextDouble() * types.length)];
+	}
+}
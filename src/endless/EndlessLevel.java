@@ -0,0 +1,216 @@
+package endless;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import main.App;
+import main.LaneIndex;
+import main.Level;
+import main.MoverStore;
+import main.Sprite;
+import main.World;
+
+/**
+ * A level that never ends: a screen of generated lanes, scrolling down a lane at a time
+ * as the player advances past the middle of the screen.
+ * The lane scrolling off the bottom gives its sprites back to a pool and is filled again
+ * as the new top lane, so the number of sprites, and the memory and time of a tick, stay
+ * the same however long the run goes on.
+ */
+public class EndlessLevel extends Level {
+	
+	/* number of lanes on screen, a lane a tile from the top of screen down to the start */
+	private static final int NUM_LANES = App.SCREEN_HEIGHT / App.TILE_SIZE;
+	/* the player going above this y coordinate scrolls the level */
+	private static final float SCROLL_Y = App.SCREEN_HEIGHT / 2;
+	
+	private ChunkGenerator generator;
+	private SpritePool pool;
+	
+	// the sprites of every lane on screen, the lane at the top first from index top
+	private Chunk[] chunks;
+	private int top;
+	
+	/**
+	 * Create an endless level
+	 * @param seed Seed of every lane generated
+	 * @param useMoverStore True to keep moving lane objects in a store of movers
+	 * @return The first screen of the level
+	 */
+	public static EndlessLevel create(long seed, boolean useMoverStore) {
+		ChunkGenerator generator = new ChunkGenerator(seed);
+		SpritePool pool = new SpritePool();
+		Chunk[] chunks = new Chunk[NUM_LANES];
+		ArrayList<Sprite> sprites = new ArrayList<>();
+		
+		//lanes are made up from the bottom of screen upwards
+		for (int lane = NUM_LANES - 1; lane >= 0; lane--) {
+			chunks[lane] = new Chunk();
+			generator.fill(chunks[lane], laneY(lane), pool);
+			sprites.addAll(chunks[lane].sprites);
+		}
+		
+		return new EndlessLevel(sprites, useMoverStore, generator, pool, chunks);
+	}
+	
+	private EndlessLevel(ArrayList<Sprite> sprites, boolean useMoverStore, ChunkGenerator generator, 
+			SpritePool pool, Chunk[] chunks) {
+		super(sprites, useMoverStore);
+		this.generator = generator;
+		this.pool = pool;
+		this.chunks = chunks;
+		pool.setStore(getMovers());
+	}
+	
+	@Override
+	public int scrollWith(Sprite player) {
+		int scrolled = 0;
+		while (player.getY() < SCROLL_Y) {
+			scroll();
+			player.setPosition(player.getX(), player.getY() + App.TILE_SIZE);
+			scrolled++;
+		}
+		
+		if (scrolled > 0) {
+			changeLayout();
+		}
+		return scrolled;
+	}
+	
+	/**
+	 * Get the row the player starts again on after a death: the lowest median on screen,
+	 * as the start row may have scrolled into a road or a river by then
+	 * @return Y coordinate of the row
+	 */
+	@Override
+	public float getRespawnY() {
+		for (int lane = NUM_LANES - 1; lane >= 0; lane--) {
+			if (chunks[(top + lane) % NUM_LANES].isMedian()) {
+				return laneY(lane);
+			}
+		}
+		return World.PLAYER_INIT_Y;
+	}
+	
+	/**
+	 * Get the pool the sprites of this level are recycled through
+	 * @return The pool
+	 */
+	public SpritePool getPool() {
+		return pool;
+	}
+	
+	@Override
+	public void writeState(ByteBuffer buffer) {
+		generator.writeState(buffer);
+		pool.writeState(buffer);
+		MoverStore movers = getMovers();
+		if (movers != null) {
+			movers.writeState(buffer);
+		}
+		
+		buffer.putInt(top);
+		for (int i = 0; i < chunks.length; i++) {
+			ArrayList<Sprite> lane = chunks[i].sprites;
+			buffer.putInt(lane.size());
+			for (int j = 0; j < lane.size(); j++) {
+				buffer.putInt(pool.idOf(lane.get(j)));
+			}
+		}
+		
+		//sprites are written in the order of the level, which the extra life picks by
+		ArrayList<Sprite> sprites = getSprites();
+		buffer.putInt(sprites.size());
+		for (int i = 0; i < sprites.size(); i++) {
+			Sprite sprite = sprites.get(i);
+			buffer.putInt(pool.idOf(sprite));
+			if (sprite.isStatic()) {
+				buffer.putFloat(sprite.getX()).putFloat(sprite.getY());
+			}
+			else {
+				sprite.writeState(buffer);
+			}
+		}
+	}
+	
+	/**
+	 * Read back the state written by writeState, into an endless level of the same seed.
+	 * Sprites the pool of this level hasn't created yet are created.
+	 * @param buffer The buffer to read from
+	 * @throws IllegalArgumentException If the state is of a level of a different seed
+	 */
+	@Override
+	public void readState(ByteBuffer buffer) {
+		generator.readState(buffer);
+		pool.readState(buffer);
+		MoverStore movers = getMovers();
+		if (movers != null) {
+			movers.readState(buffer);
+		}
+		
+		top = buffer.getInt();
+		for (int i = 0; i < chunks.length; i++) {
+			Chunk chunk = chunks[i];
+			chunk.sprites.clear();
+			chunk.types.clear();
+			int size = buffer.getInt();
+			for (int j = 0; j < size; j++) {
+				int id = buffer.getInt();
+				chunk.add(pool.typeOf(id), pool.get(id));
+			}
+		}
+		
+		ArrayList<Sprite> sprites = getSprites();
+		sprites.clear();
+		getLanes().rebuild(sprites);
+		int size = buffer.getInt();
+		for (int i = 0; i < size; i++) {
+			Sprite sprite = pool.get(buffer.getInt());
+			if (sprite.isStatic()) {
+				sprite.respawn(buffer.getFloat(), buffer.getFloat(), false);
+			}
+			else {
+				sprite.readState(buffer);
+			}
+			add(sprite);
+		}
+		changeLayout();
+	}
+	
+	/*
+	 * Move every lane down a tile, recycling the bottom lane into a new top lane
+	 */
+	private void scroll() {
+		int bottomRow = LaneIndex.rowOf(laneY(NUM_LANES - 1));
+		Chunk bottom = chunks[(top + NUM_LANES - 1) % NUM_LANES];
+		bottom.recycle(pool);
+		
+		//drop the bottom lane in place and move everything else down
+		ArrayList<Sprite> sprites = getSprites();
+		int kept = 0;
+		for (int i = 0; i < sprites.size(); i++) {
+			Sprite sprite = sprites.get(i);
+			if (LaneIndex.rowOf(sprite.getY()) != bottomRow) {
+				sprite.setPosition(sprite.getX(), sprite.getY() + App.TILE_SIZE);
+				sprites.set(kept++, sprite);
+			}
+		}
+		while (sprites.size() > kept) {
+			sprites.remove(sprites.size() - 1);
+		}
+		getLanes().scrollDown();
+		
+		top = (top + NUM_LANES - 1) % NUM_LANES;
+		generator.fill(bottom, laneY(0), pool);
+		for (int i = 0; i < bottom.sprites.size(); i++) {
+			add(bottom.sprites.get(i));
+		}
+	}
+	
+	/*
+	 * Get the y coordinate of the center of a lane on screen
+	 */
+	private static float laneY(int lane) {
+		return lane * App.TILE_SIZE;
+	}
+}
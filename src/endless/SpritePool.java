@@ -0,0 +1,165 @@
+package endless;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+
+import level.EntityType;
+import main.MoverStore;
+import main.Sprite;
+
+/**
+ * Sprites out of play, kept by kind to be put back into play instead of creating new ones.
+ * A sprite is only created when there is none of its kind left, so once a run has seen
+ * its busiest stretch, recycling a lane allocates nothing.
+ * Every sprite created gets an id, its place in the order of creation, so a saved state
+ * can name sprites and a pool of the same seed can create the same ones again.
+ */
+public class SpritePool {
+	
+	private EnumMap<EntityType, ArrayDeque<Sprite>> free = new EnumMap<>(EntityType.class);
+	// store new movers are attached to, null to let them update themselves
+	private MoverStore store;
+	// every sprite this pool created, and its kind, in the order of creation
+	private ArrayList<Sprite> created = new ArrayList<>();
+	private ArrayList<EntityType> createdTypes = new ArrayList<>();
+	private IdentityHashMap<Sprite, Integer> ids = new IdentityHashMap<>();
+	
+	/**
+	 * Create an empty pool
+	 */
+	public SpritePool() {
+		for (EntityType type : EntityType.values()) {
+			free.put(type, new ArrayDeque<>());
+		}
+	}
+	
+	/**
+	 * Set the store new movers are attached to
+	 * @param store The store of movers, or null to let new movers update themselves
+	 */
+	public void setStore(MoverStore store) {
+		this.store = store;
+	}
+	
+	/**
+	 * Get a sprite of a kind into play, from the pool if there is one left
+	 * @param type The kind of sprite
+	 * @param x X coordinate of the center
+	 * @param y Y coordinate of the center
+	 * @param moveRight Direction of move, ignored by tiles
+	 * @return A sprite in play at the given position
+	 */
+	public Sprite obtain(EntityType type, float x, float y, boolean moveRight) {
+		Sprite sprite = free.get(type).poll();
+		if (sprite == null) {
+			return create(type, x, y, moveRight);
+		}
+		
+		sprite.respawn(x, y, moveRight);
+		return sprite;
+	}
+	
+	/**
+	 * Take a sprite out of play and keep it for later
+	 * @param type The kind of the sprite
+	 * @param sprite The sprite
+	 */
+	public void free(EntityType type, Sprite sprite) {
+		free.get(type).push(sprite);
+	}
+	
+	/**
+	 * Get the number of sprites this pool ever created
+	 * @return Number of sprites created
+	 */
+	public int getCreated() {
+		return created.size();
+	}
+	
+	/*
+	 * Get the id of a sprite created by this pool
+	 */
+	int idOf(Sprite sprite) {
+		return ids.get(sprite);
+	}
+	
+	/*
+	 * Get the sprite created with an id
+	 */
+	Sprite get(int id) {
+		return created.get(id);
+	}
+	
+	/*
+	 * Get the kind of the sprite created with an id
+	 */
+	EntityType typeOf(int id) {
+		return createdTypes.get(id);
+	}
+	
+	/**
+	 * Write the kind of every sprite created, and which sprites are out of play
+	 * @param buffer The buffer to write into
+	 */
+	public void writeState(ByteBuffer buffer) {
+		buffer.putInt(created.size());
+		for (int i = 0; i < createdTypes.size(); i++) {
+			buffer.put((byte) createdTypes.get(i).getId());
+		}
+		for (EntityType type : EntityType.values()) {
+			ArrayDeque<Sprite> sprites = free.get(type);
+			buffer.putInt(sprites.size());
+			for (Sprite sprite : sprites) {
+				buffer.putInt(idOf(sprite));
+			}
+		}
+	}
+	
+	/**
+	 * Read back the state written by writeState, creating the sprites this pool hasn't
+	 * created yet. Sprites created after the state was written are left out of play.
+	 * @param buffer The buffer to read from
+	 * @throws IllegalArgumentException If the state is of a pool of a different seed
+	 */
+	public void readState(ByteBuffer buffer) {
+		int numCreated = buffer.getInt();
+		for (int i = 0; i < numCreated; i++) {
+			EntityType type = EntityType.fromId(buffer.get());
+			if (type == null || (i < created.size() && createdTypes.get(i) != type)) {
+				throw new IllegalArgumentException("State is of a different pool");
+			}
+			if (i == created.size()) {
+				create(type, 0, 0, false);
+			}
+		}
+		
+		for (EntityType type : EntityType.values()) {
+			ArrayDeque<Sprite> sprites = free.get(type);
+			sprites.clear();
+			int numFree = buffer.getInt();
+			for (int i = 0; i < numFree; i++) {
+				sprites.addLast(created.get(buffer.getInt()));
+			}
+		}
+		for (int i = numCreated; i < created.size(); i++) {
+			free.get(createdTypes.get(i)).addLast(created.get(i));
+		}
+	}
+	
+	/*
+	 * Create a new sprite of a kind, giving it the next id
+	 */
+	private Sprite create(EntityType type, float x, float y, boolean moveRight) {
+		Sprite sprite = type.create(x, y, moveRight);
+		if (store != null) {
+			sprite.attachTo(store);
+		}
+		ids.put(sprite, created.size());
+		created.add(sprite);
+		createdTypes.add(type);
+		return sprite;
+	}
+}
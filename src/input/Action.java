@@ -0,0 +1,23 @@
+package input;
+
+/**
+ * The moves a player can ask for, one tile a time.
+ */
+public enum Action {
+	/** move one tile up */
+	UP,
+	/** move one tile down */
+	DOWN,
+	/** move one tile left */
+	LEFT,
+	/** move one tile right */
+	RIGHT;
+	
+	/**
+	 * Get the bit of this action, so a set of actions fits in one int
+	 * @return A mask with the single bit of this action set
+	 */
+	public int mask() {
+		return 1 << ordinal();
+	}
+}
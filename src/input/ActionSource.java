@@ -0,0 +1,19 @@
+package input;
+
+/**
+ * Anything the player can be controlled by: a keyboard, a script, a recorded replay
+ * or a network connection.
+ */
+public interface ActionSource {
+	
+	/** A source that never asks for anything */
+	ActionSource NONE = action -> false;
+	
+	/**
+	 * Check whether an action was asked for since the last check, each request is
+	 * reported once.
+	 * @param action The action to check
+	 * @return True if the action was asked for
+	 */
+	boolean isPressed(Action action);
+}
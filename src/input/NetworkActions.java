@@ -0,0 +1,44 @@
+package input;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Actions asked for over a network connection. The thread reading the connection adds
+ * each set of actions it receives, and the thread stepping the world takes everything
+ * asked for since the last tick at the start of each tick, so every request is reported once.
+ * Sets are combinations of Action.mask() bits.
+ */
+public class NetworkActions implements ActionSource {
+	
+	/** every bit of a set of actions */
+	public static final int ALL = (1 << Action.values().length) - 1;
+	
+	private AtomicInteger asked = new AtomicInteger();
+	// actions of the current tick not asked about yet, only read by the world's thread
+	private int pending;
+	
+	/**
+	 * Add actions received from the connection, from any thread
+	 * @param actions A set of actions, bits of no action are ignored
+	 */
+	public void ask(int actions) {
+		int bits = actions & ALL;
+		if (bits != 0) {
+			asked.getAndAccumulate(bits, (a, b) -> a | b);
+		}
+	}
+	
+	/**
+	 * Take every action asked for since the last tick, must be called once before every update
+	 */
+	public void nextTick() {
+		pending = asked.getAndSet(0);
+	}
+	
+	@Override
+	public boolean isPressed(Action action) {
+		boolean pressed = (pending & action.mask()) != 0;
+		pending &= ~action.mask();
+		return pressed;
+	}
+}
@@ -0,0 +1,43 @@
+package input;
+
+/**
+ * Actions read from a script of one set of actions per tick, to control a player without
+ * anybody at the keyboard. Each set is a combination of Action.mask() bits.
+ */
+public class ScriptedActions implements ActionSource {
+	
+	private int[] script;
+	private boolean loop;
+	
+	private int tick;
+	// actions of the current tick not asked about yet
+	private int pending;
+	
+	/**
+	 * Create a source of actions from a script
+	 * @param script One set of actions per tick
+	 * @param loop True to start the script again once it ends, false to stop asking for anything
+	 */
+	public ScriptedActions(int[] script, boolean loop) {
+		this.script = script;
+		this.loop = loop;
+	}
+	
+	/**
+	 * Move on to the actions of the next tick, must be called once before every update
+	 */
+	public void nextTick() {
+		if (tick >= script.length && loop && script.length > 0) {
+			tick = 0;
+		}
+		pending = tick < script.length ? script[tick] : 0;
+		tick++;
+	}
+	
+	@Override
+	public boolean isPressed(Action action) {
+		boolean pressed = (pending & action.mask()) != 0;
+		pending &= ~action.mask();
+		return pressed;
+	}
+}
@@ -0,0 +1,128 @@
+package level;
+
+import main.Sprite;
+import main.Tile;
+import rideableObject.RideableObject;
+import rideableObject.Turtle;
+import vehicle.Bike;
+import vehicle.Bulldozer;
+import vehicle.Vehicle;
+
+/**
+ * Every kind of object a level can hold, with the name it has in a text level file and
+ * the id it has in a binary level file.
+ * Ids are the order of declaration, so new kinds must only ever be added at the end.
+ */
+public enum EntityType {
+	/** a water tile, fatal to player */
+	WATER("water", false),
+	/** a grass tile */
+	GRASS("grass", false),
+	/** a tree tile, player can't move in */
+	TREE("tree", false),
+	/** a bus */
+	BUS("bus", true),
+	/** a racecar */
+	RACECAR("racecar", true),
+	/** a bulldozer, pushes the player */
+	BULLDOZER("bulldozer", true),
+	/** a bike, turns back at the edges of screen */
+	BIKE("bike", true),
+	/** a log player can ride on */
+	LOG("log", true),
+	/** a long log player can ride on */
+	LONG_LOG("longLog", true),
+	/** a turtle, diving now and then */
+	TURTLE("turtle", true);
+	
+	private static final EntityType[] BY_ID = values();
+	
+	private final String fileName;
+	private final boolean mover;
+	
+	private EntityType(String fileName, boolean mover) {
+		this.fileName = fileName;
+		this.mover = mover;
+	}
+	
+	/**
+	 * Get the name of this kind in a text level file
+	 * @return The name used in the first column of a level file
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+	
+	/**
+	 * Check whether objects of this kind move, and so have a direction column
+	 * @return True if objects of this kind move
+	 */
+	public boolean isMover() {
+		return mover;
+	}
+	
+	/**
+	 * Get the id of this kind in a binary level file
+	 * @return The id
+	 */
+	public int getId() {
+		return ordinal();
+	}
+	
+	/**
+	 * Create an object of this kind
+	 * @param x X coordinate of the center
+	 * @param y Y coordinate of the center
+	 * @param moveRight Direction of move, ignored by tiles
+	 * @return A new sprite of this kind
+	 */
+	public Sprite create(float x, float y, boolean moveRight) {
+		switch (this) {
+			case WATER:
+				return Tile.createWaterTile(x, y);
+			case GRASS:
+				return Tile.createGrassTile(x, y);
+			case TREE:
+				return Tile.createTreeTile(x, y);
+			case BUS:
+				return Vehicle.createBus(x, y, moveRight);
+			case RACECAR:
+				return Vehicle.createRacecar(x, y, moveRight);
+			case BULLDOZER:
+				return new Bulldozer(x, y, moveRight);
+			case BIKE:
+				return new Bike(x, y, moveRight);
+			case LOG:
+				return RideableObject.createLog(x, y, moveRight);
+			case LONG_LOG:
+				return RideableObject.createLongLog(x, y, moveRight);
+			case TURTLE:
+				return new Turtle(x, y, moveRight);
+			default:
+				throw new IllegalStateException("Unknown entity type " + this);
+		}
+	}
+	
+	/**
+	 * Get the kind of object named in a text level file
+	 * @param fileName The name in the first column of a level file
+	 * @return The kind, or null if the name is unknown
+	 */
+	public static EntityType fromFileName(String fileName) {
+		for (EntityType type : BY_ID) {
+			if (type.fileName.equals(fileName)) {
+				return type;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Get the kind of object with an id of a binary level file
+	 * @param id The id
+	 * @return The kind, or null if the id is unknown
+	 */
+	public static EntityType fromId(int id) {
+		return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+	}
+}
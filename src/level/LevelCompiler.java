@@ -0,0 +1,96 @@
+package level;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts text level files into the binary level format read by LevelReader.
+ * Custom tags of a text level have no place in the fixed-width records and are dropped,
+ * with a warning.
+ */
+public class LevelCompiler {
+	
+	private LevelCompiler() {
+	}
+	
+	/**
+	 * Compile a text level file into a binary level file
+	 * @param textFile Pathway to the text level file
+	 * @param binaryFile Pathway to the binary level file written
+	 * @return The number of records written
+	 * @throws IOException If a file can't be read or written
+	 */
+	public static int compile(String textFile, String binaryFile) throws IOException {
+		List<LevelEntry> entries = new ArrayList<>();
+		boolean droppedTags = false;
+		
+		try (BufferedReader file = new BufferedReader(new FileReader(textFile))) {
+			String text;
+			int row = 0;
+			while ((text = file.readLine()) != null) {
+				row++;
+				if (text.trim().isEmpty()) {
+					continue;
+				}
+				try {
+					LevelEntry entry = LevelEntry.parse(text);
+					droppedTags |= entry.tags.length > 0;
+					entries.add(entry);
+				} catch (IllegalArgumentException e) {
+					System.err.println(textFile + ":" + row + ": skipped, " + e.getMessage());
+				}
+			}
+		}
+		if (droppedTags) {
+			System.err.println(textFile + ": custom tags are not kept in binary levels");
+		}
+		
+		ByteBuffer buffer = ByteBuffer.allocate(LevelReader.HEADER_SIZE 
+				+ entries.size() * LevelReader.RECORD_SIZE);
+		buffer.putInt(LevelReader.MAGIC);
+		buffer.putShort(LevelReader.VERSION);
+		buffer.putShort(LevelReader.RECORD_SIZE);
+		buffer.putInt(entries.size());
+		for (LevelEntry entry : entries) {
+			buffer.putShort((short) entry.type.getId());
+			buffer.putShort(entry.moveRight ? LevelReader.FLAG_MOVE_RIGHT : 0);
+			buffer.putFloat(entry.x);
+			buffer.putFloat(entry.y);
+		}
+		buffer.flip();
+		
+		try (FileChannel channel = FileChannel.open(Paths.get(binaryFile), StandardOpenOption.CREATE, 
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+		
+		return entries.size();
+	}
+	
+	/**
+	 * Compile every text level file given, each into a binary file next to it
+	 * @param args Pathways to the text level files
+	 * @throws IOException If a file can't be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("usage: LevelCompiler <level.lvl>...");
+			return;
+		}
+		
+		for (String textFile : args) {
+			String binaryFile = textFile.replaceAll("\\.lvl$", "") + LevelReader.BINARY_EXTENSION;
+			int count = compile(textFile, binaryFile);
+			System.out.println(textFile + " -> " + binaryFile + " (" + count + " entities)");
+		}
+	}
+}
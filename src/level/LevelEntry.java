@@ -0,0 +1,61 @@
+package level;
+
+/**
+ * One row of a text level file: the kind of object, where it starts, which way it goes
+ * and any custom tags following the fixed columns.
+ */
+class LevelEntry {
+	
+	final EntityType type;
+	final float x;
+	final float y;
+	final boolean moveRight;
+	final String[] tags;
+	
+	private LevelEntry(EntityType type, float x, float y, boolean moveRight, String[] tags) {
+		this.type = type;
+		this.x = x;
+		this.y = y;
+		this.moveRight = moveRight;
+		this.tags = tags;
+	}
+	
+	/**
+	 * Parse one row of a text level file
+	 * @param line The row, columns separated by commas
+	 * @return The entry of this row
+	 * @throws IllegalArgumentException If the row is not a valid level row
+	 */
+	static LevelEntry parse(String line) {
+		String[] cells = line.split(",");
+		if (cells.length < 3) {
+			throw new IllegalArgumentException("expected at least 3 columns");
+		}
+		
+		EntityType type = EntityType.fromFileName(cells[0].trim());
+		if (type == null) {
+			throw new IllegalArgumentException("unknown object " + cells[0]);
+		}
+		
+		float x = Float.parseFloat(cells[1].trim());
+		float y = Float.parseFloat(cells[2].trim());
+		
+		// tiles have no direction column, every column after the fixed ones is a tag
+		int tagColumn = 3;
+		boolean moveRight = false;
+		if (type.isMover()) {
+			if (cells.length < 4) {
+				throw new IllegalArgumentException("missing direction of " + type.getFileName());
+			}
+			moveRight = Boolean.parseBoolean(cells[3].trim());
+			tagColumn = 4;
+		}
+		
+		String[] tags = new String[Math.max(cells.length - tagColumn, 0)];
+		for (int i = 0; i < tags.length; i++) {
+			tags[i] = cells[tagColumn + i].trim();
+		}
+		
+		return new LevelEntry(type, x, y, moveRight, tags);
+	}
+}
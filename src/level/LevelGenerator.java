@@ -0,0 +1,216 @@
+package level;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.EnumMap;
+import java.util.Map;
+
+import main.App;
+import main.World;
+import utilities.Rng;
+
+/**
+ * Writes synthetic text level files of any size, to see how the simulation behaves with
+ * far more objects than the shipped levels hold.
+ * Every lane holds movers of one kind, picked by weight from the mix, going the opposite
+ * way of the lane before it. Lanes of logs and turtles lie on a row of water tiles.
+ * Lanes fill rows from the top of the screen on, past its bottom when there are many,
+ * leaving the start row of the player empty so standing still is always safe.
+ * A mix may leave out the river entirely, the extra life then never finds anything to
+ * ride and stays hidden.
+ */
+public class LevelGenerator {
+	
+	/* first row holding a lane, the rows above are left for the destinations */
+	private static final int FIRST_ROW = 2;
+	/* number of water tiles under a lane of the river */
+	private static final int TILES_PER_ROW = App.SCREEN_WIDTH / App.TILE_SIZE + 1;
+	
+	private int moversPerLane;
+	private boolean water = true;
+	private Map<EntityType, Integer> mix = new EnumMap<>(EntityType.class);
+	private Rng rng;
+	
+	/**
+	 * Create a generator of levels with the same mix of movers as the shipped levels
+	 * @param moversPerLane Number of movers in every lane
+	 * @param seed Seed of the kinds and places of the movers
+	 */
+	public LevelGenerator(int moversPerLane, long seed) {
+		if (moversPerLane < 0) {
+			throw new IllegalArgumentException("negative number of movers per lane");
+		}
+		this.moversPerLane = moversPerLane;
+		this.rng = new Rng(seed);
+		
+		mix.put(EntityType.BUS, 2);
+		mix.put(EntityType.RACECAR, 1);
+		mix.put(EntityType.BULLDOZER, 1);
+		mix.put(EntityType.BIKE, 1);
+		mix.put(EntityType.LOG, 2);
+		mix.put(EntityType.LONG_LOG, 1);
+		mix.put(EntityType.TURTLE, 1);
+	}
+	
+	/**
+	 * Set how often lanes of a kind of mover come up, relative to the other kinds
+	 * @param type The kind of mover
+	 * @param weight Its weight, 0 for no lanes of it
+	 * @return This generator
+	 */
+	public LevelGenerator setWeight(EntityType type, int weight) {
+		if (!type.isMover()) {
+			throw new IllegalArgumentException(type.getFileName() + " is not a mover");
+		}
+		if (weight < 0) {
+			throw new IllegalArgumentException("negative weight of " + type.getFileName());
+		}
+		mix.put(type, weight);
+		return this;
+	}
+	
+	/**
+	 * Set the mix of movers from text such as "bus=2,log=1", kinds not named keep
+	 * their weight
+	 * @param text Pairs of a name of a level file and a weight, separated by commas
+	 * @return This generator
+	 */
+	public LevelGenerator setMix(String text) {
+		for (String pair : text.split(",")) {
+			String[] cells = pair.split("=");
+			EntityType type = cells.length == 2 ? EntityType.fromFileName(cells[0].trim()) : null;
+			if (type == null) {
+				throw new IllegalArgumentException("invalid mix entry " + pair);
+			}
+			setWeight(type, Integer.parseInt(cells[1].trim()));
+		}
+		return this;
+	}
+	
+	/**
+	 * Set whether lanes of the river lie on water tiles
+	 * @param water False to write the movers only
+	 * @return This generator
+	 */
+	public LevelGenerator setWater(boolean water) {
+		this.water = water;
+		return this;
+	}
+	
+	/**
+	 * Write a level into a text level file
+	 * @param fileName Pathway to the level file
+	 * @param lanes Number of lanes of movers
+	 * @return The number of objects written
+	 * @throws IOException If the file can't be written
+	 */
+	public long write(String fileName, int lanes) throws IOException {
+		int total = totalWeight();
+		if (total == 0 && lanes > 0 && moversPerLane > 0) {
+			throw new IllegalStateException("every kind of mover has weight 0");
+		}
+		
+		if (lanes < 0) {
+			throw new IllegalArgumentException("negative number of lanes");
+		}
+		
+		long written = 0;
+		int skipRow = (int) (World.PLAYER_INIT_Y / App.TILE_SIZE);
+		try (PrintWriter file = new PrintWriter(new BufferedWriter(new FileWriter(fileName)))) {
+			int row = FIRST_ROW;
+			for (int lane = 0; lane < lanes; lane++, row++) {
+				if (row == skipRow) {
+					row++;
+				}
+				int y = row * App.TILE_SIZE;
+				EntityType type = pick(total);
+				boolean moveRight = lane % 2 == 0;
+				
+				if (water && isRiver(type)) {
+					for (int i = 0; i < TILES_PER_ROW; i++) {
+						file.println(EntityType.WATER.getFileName() + "," + i * App.TILE_SIZE + "," + y);
+					}
+					written += TILES_PER_ROW;
+				}
+				
+				//movers are spread evenly over the lane, each shifted by up to a tile
+				float space = (float) App.SCREEN_WIDTH / Math.max(moversPerLane, 1);
+				for (int i = 0; i < moversPerLane; i++) {
+					int x = (int) (i * space + rng.nextDouble() * App.TILE_SIZE);
+					file.println(type.getFileName() + "," + x + "," + y + "," + moveRight);
+				}
+				written += moversPerLane;
+			}
+		}
+		return written;
+	}
+	
+	/**
+	 * Get the number of lanes to generate for about a number of objects, with water
+	 * under every lane of the river
+	 * @param objects The number of objects wanted
+	 * @return The number of lanes, at least 1
+	 */
+	public int lanesFor(long objects) {
+		int total = totalWeight();
+		int river = 0;
+		for (Map.Entry<EntityType, Integer> entry : mix.entrySet()) {
+			if (isRiver(entry.getKey())) {
+				river += entry.getValue();
+			}
+		}
+		double perLane = moversPerLane;
+		if (water && total > 0) {
+			perLane += (double) river / total * TILES_PER_ROW;
+		}
+		return (int) Math.max(1, Math.round(objects / Math.max(perLane, 1)));
+	}
+	
+	/**
+	 * Write a level file from the command line
+	 * @param args Pathway to the level file, number of lanes, movers per lane, and
+	 * optionally a seed and a mix such as "bus=2,log=1"
+	 * @throws IOException If the file can't be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("usage: LevelGenerator <level file> <lanes> <movers per lane> [seed] [mix]");
+			return;
+		}
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+		LevelGenerator generator = new LevelGenerator(Integer.parseInt(args[2]), seed);
+		if (args.length > 4) {
+			generator.setMix(args[4]);
+		}
+		long written = generator.write(args[0], Integer.parseInt(args[1]));
+		System.out.println(args[0] + ": " + written + " objects");
+	}
+	
+	/*
+	 * Pick the kind of mover of a lane by weight
+	 */
+	private EntityType pick(int total) {
+		int target = (int) (rng.nextDouble() * total);
+		for (Map.Entry<EntityType, Integer> entry : mix.entrySet()) {
+			target -= entry.getValue();
+			if (target < 0) {
+				return entry.getKey();
+			}
+		}
+		return EntityType.BUS;
+	}
+	
+	private int totalWeight() {
+		int total = 0;
+		for (int weight : mix.values()) {
+			total += weight;
+		}
+		return total;
+	}
+	
+	private static boolean isRiver(EntityType type) {
+		return type == EntityType.LOG || type == EntityType.LONG_LOG || type == EntityType.TURTLE;
+	}
+}
@@ -0,0 +1,174 @@
+package level;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import main.Level;
+import main.Sprite;
+
+/**
+ * Hands out the levels of a game one after the other.
+ * Only the level being played is kept, the next one is read on a background thread while
+ * the current one is played, so moving on to it doesn't stall a frame.
+ */
+public class LevelManager {
+	
+	/* one daemon thread shared by every manager, reading levels ahead of time */
+	private static final ExecutorService PREFETCHER = Executors.newSingleThreadExecutor(task -> {
+		Thread thread = new Thread(task, "level-prefetch");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private List<String> levelFiles;
+	private boolean useMoverStore;
+	private boolean readAhead;
+	
+	// the level being read ahead, and its index
+	private Future<Level> next;
+	private int nextIndex = -1;
+	
+	/**
+	 * Create a manager of the levels listed in a manifest file, one level file per line.
+	 * Blank lines and lines starting with # are ignored, relative paths are resolved
+	 * against the directory of the manifest.
+	 * @param manifestFile Pathway to the manifest
+	 * @param useMoverStore True to keep moving lane objects in a store of movers
+	 * @return A manager of the listed levels, or of no level if the manifest can't be read
+	 */
+	public static LevelManager fromManifest(String manifestFile, boolean useMoverStore) {
+		List<String> levelFiles = new ArrayList<>();
+		File directory = new File(manifestFile).getParentFile();
+		
+		try (BufferedReader file = new BufferedReader(new FileReader(manifestFile))) {
+			String text;
+			while ((text = file.readLine()) != null) {
+				text = text.trim();
+				if (text.isEmpty() || text.startsWith("#")) {
+					continue;
+				}
+				File level = new File(text);
+				levelFiles.add(level.isAbsolute() || directory == null ? text 
+						: new File(directory, text).getPath());
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		
+		return new LevelManager(levelFiles, useMoverStore);
+	}
+	
+	/**
+	 * Create a manager of a list of levels
+	 * @param levelFiles Pathways to the level files, in the order they are played
+	 * @param useMoverStore True to keep moving lane objects in a store of movers
+	 */
+	public LevelManager(List<String> levelFiles, boolean useMoverStore) {
+		this(levelFiles, useMoverStore, true);
+	}
+	
+	/**
+	 * Create a manager of a list of levels
+	 * @param levelFiles Pathways to the level files, in the order they are played
+	 * @param useMoverStore True to keep moving lane objects in a store of movers
+	 * @param readAhead True to read the next level on a background thread, false to read
+	 * every level when it is taken, such as when many worlds already run in parallel
+	 */
+	public LevelManager(List<String> levelFiles, boolean useMoverStore, boolean readAhead) {
+		this.levelFiles = Collections.unmodifiableList(new ArrayList<>(levelFiles));
+		this.useMoverStore = useMoverStore;
+		this.readAhead = readAhead;
+	}
+	
+	/**
+	 * Get the pathways to the level files
+	 * @return The level files, in the order they are played
+	 */
+	public List<String> getLevelFiles() {
+		return levelFiles;
+	}
+	
+	/**
+	 * Get the number of levels
+	 * @return Number of levels in the game
+	 */
+	public int size() {
+		return levelFiles.size();
+	}
+	
+	/**
+	 * Get a level to play, taking it from the background read if it was read ahead,
+	 * and start reading the level after it
+	 * @param index The index of the level
+	 * @return The level, empty if there is no such level or it can't be read
+	 */
+	public Level take(int index) {
+		Level level;
+		
+		if (index == nextIndex) {
+			level = await(next);
+		}
+		else {
+			if (next != null) {
+				next.cancel(false);
+			}
+			level = load(index);
+		}
+		next = null;
+		nextIndex = -1;
+		
+		prefetch(index + 1);
+		return level;
+	}
+	
+	/*
+	 * Start reading a level on the background thread, if there is such a level
+	 */
+	private void prefetch(int index) {
+		if (!readAhead || index >= levelFiles.size()) {
+			return;
+		}
+		nextIndex = index;
+		next = PREFETCHER.submit(() -> load(index));
+	}
+	
+	/*
+	 * Read a level and get it ready to play, on the calling thread
+	 */
+	private Level load(int index) {
+		ArrayList<Sprite> sprites = new ArrayList<>();
+		
+		if (index >= 0 && index < levelFiles.size()) {
+			try {
+				LevelReader.read(levelFiles.get(index), sprites);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		return new Level(sprites, useMoverStore);
+	}
+	
+	/*
+	 * Wait for a level read ahead, reading it again here if the background read failed
+	 */
+	private Level await(Future<Level> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			e.printStackTrace();
+		}
+		return load(nextIndex);
+	}
+}
@@ -0,0 +1,135 @@
+package level;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import main.Sprite;
+import utilities.TagRegistry;
+
+/**
+ * Reads the objects of a level, either from a text level file (one csv row per object)
+ * or from a compiled binary level file of fixed-width records.
+ *
+ * A binary level starts with a header: magic number, format version, record size and
+ * number of records. Every record then holds the entity type id and direction flags as
+ * shorts and the x and y coordinates as floats.
+ */
+public class LevelReader {
+	
+	/** file extension of compiled binary levels */
+	public static final String BINARY_EXTENSION = ".blvl";
+	
+	/** first int of every binary level, "FROG" in ascii */
+	static final int MAGIC = 0x46524F47;
+	/** version of the binary level format */
+	static final short VERSION = 1;
+	/** size of the header of a binary level, in bytes */
+	static final int HEADER_SIZE = 12;
+	/** size of one record of a binary level, in bytes */
+	static final short RECORD_SIZE = 12;
+	/** flag of a record whose object moves right */
+	static final short FLAG_MOVE_RIGHT = 1;
+	
+	private LevelReader() {
+	}
+	
+	/**
+	 * Read the objects of a level file, binary if its name ends with BINARY_EXTENSION
+	 * @param fileName Pathway to the level file
+	 * @param sprites The objects of the level are added to it
+	 * @throws IOException If the file can't be read, or is not a valid binary level
+	 */
+	public static void read(String fileName, List<Sprite> sprites) throws IOException {
+		if (fileName.endsWith(BINARY_EXTENSION)) {
+			readBinary(fileName, sprites);
+		}
+		else {
+			readText(fileName, sprites);
+		}
+	}
+	
+	/**
+	 * Read the objects of a text level file, invalid rows are reported and skipped
+	 * @param fileName Pathway to the level file
+	 * @param sprites The objects of the level are added to it
+	 * @throws IOException If the file can't be read
+	 */
+	public static void readText(String fileName, List<Sprite> sprites) throws IOException {
+		try (BufferedReader file = new BufferedReader(new FileReader(fileName))) {
+			String text;
+			int row = 0;
+			
+			while ((text = file.readLine()) != null) {
+				row++;
+				if (text.trim().isEmpty()) {
+					continue;
+				}
+				
+				LevelEntry entry;
+				try {
+					entry = LevelEntry.parse(text);
+				} catch (IllegalArgumentException e) {
+					System.err.println(fileName + ":" + row + ": skipped, " + e.getMessage());
+					continue;
+				}
+				
+				Sprite sprite = entry.type.create(entry.x, entry.y, entry.moveRight);
+				for (String tag : entry.tags) {
+					sprite.addTag(TagRegistry.intern(tag));
+				}
+				sprites.add(sprite);
+			}
+		}
+	}
+	
+	/**
+	 * Read the objects of a binary level file, mapping it into memory and building the
+	 * sprites straight from its records
+	 * @param fileName Pathway to the level file
+	 * @param sprites The objects of the level are added to it
+	 * @throws IOException If the file can't be read or is not a valid binary level
+	 */
+	public static void readBinary(String fileName, List<Sprite> sprites) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			
+			int count = readHeader(fileName, buffer, channel.size());
+			for (int i = 0; i < count; i++) {
+				EntityType type = EntityType.fromId(buffer.getShort());
+				short flags = buffer.getShort();
+				float x = buffer.getFloat();
+				float y = buffer.getFloat();
+				
+				if (type == null) {
+					throw new IOException(fileName + ": unknown entity type in record " + i);
+				}
+				sprites.add(type.create(x, y, (flags & FLAG_MOVE_RIGHT) != 0));
+			}
+		}
+	}
+	
+	/*
+	 * Check the header of a binary level and return its number of records
+	 */
+	private static int readHeader(String fileName, ByteBuffer buffer, long size) throws IOException {
+		if (size < HEADER_SIZE || buffer.getInt() != MAGIC) {
+			throw new IOException(fileName + " is not a binary level");
+		}
+		if (buffer.getShort() != VERSION || buffer.getShort() != RECORD_SIZE) {
+			throw new IOException(fileName + " has an unsupported binary level version");
+		}
+		
+		int count = buffer.getInt();
+		if (count < 0 || HEADER_SIZE + (long) count * RECORD_SIZE > size) {
+			throw new IOException(fileName + " is truncated");
+		}
+		return count;
+	}
+}
@@ -7,11 +7,25 @@ import org.newdawn.slick.AppGameContainer;
 import org.newdawn.slick.BasicGame;
 import org.newdawn.slick.GameContainer;
 import org.newdawn.slick.Graphics;
-import org.newdawn.slick.SlickException;
 import org.newdawn.slick.Input;
+import org.newdawn.slick.SlickException;
+
+import java.io.IOException;
+
+import endless.EndlessLevel;
+import input.ActionSource;
+import metrics.TickMetrics;
+import metrics.TickPhase;
+import replay.Replay;
+import replay.ReplayRecorder;
+import render.PerformanceHud;
+import render.RenderStats;
+import render.TextureAtlas;
+import render.TextureCache;
+import render.WorldRenderer;
 
 /**
- * Main class for the game.
+ * Main class for the game, the Slick front end of the World.
  * Handles initialization, input and rendering.
  */
 public class App extends BasicGame {
@@ -21,44 +35,175 @@ public class App extends BasicGame {
     public static final int SCREEN_HEIGHT = 768;
     /** tile size, in pixels */
     public static final int TILE_SIZE = 48;
+    /** time stepped by every tick of the world, in milliseconds */
+    public static final int TICK_MILLIS = 16;
+    /** most ticks stepped in one frame, so a long pause can't make the game fall further behind */
+    public static final int MAX_TICKS_PER_FRAME = 5;
+    /** directory of every image of the game, packed into one atlas */
+    public static final String ASSETS_DIR = "assets";
+    /** file the tick metrics are written to when the game ends, if they were recorded */
+    public static final String METRICS_FILE = "tick-metrics.txt";
+    /** key switching the recording of tick metrics on and off */
+    public static final int METRICS_KEY = Input.KEY_F2;
+    /** key showing and hiding the performance overlay */
+    public static final int HUD_KEY = Input.KEY_F3;
 	
     private World world;
+    private WorldRenderer renderer;
+    private ActionSource actions;
+    private FixedTimestep timestep;
+    private PerformanceHud hud = new PerformanceHud();
+    
+    // pathway to record the run to, null to not record it
+    private String replayFile;
+    // whether to play an endless run of generated lanes instead of the levels
+    private boolean endless;
+    private ReplayRecorder recorder;
     
     /**
      * Create a App class calling constructor in BasicGame Class
      */
     public App() {
+        this(null, false);
+    }
+    
+    /**
+     * Create a App class recording every run into a replay file
+     * @param replayFile Pathway to the replay file, or null to not record
+     * @param endless True to play an endless run of generated lanes instead of the levels
+     */
+    public App(String replayFile, boolean endless) {
         super("Shadow Leap");
+        this.replayFile = replayFile;
+        this.endless = endless;
     }
 
     @Override
     public void init(GameContainer gc)
             throws SlickException {
-        world = new World();
+        TextureCache.setAtlas(TextureAtlas.pack(ASSETS_DIR));
+        if (endless) {
+            long seed = System.nanoTime();
+            world = new World(EndlessLevel.create(seed, true), seed);
+        }
+        else {
+            world = new World();
+        }
+        renderer = new WorldRenderer(world);
+        actions = new KeyboardActionSource(gc.getInput());
+        if (replayFile != null) {
+            try {
+                recorder = new ReplayRecorder(actions, replayFile, world.getSeed(),
+                        endless ? Replay.ENDLESS : Replay.LEVELS, TICK_MILLIS);
+                actions = recorder;
+            } catch (IOException e) {
+                throw new SlickException("Can't record to " + replayFile, e);
+            }
+        }
+        timestep = new FixedTimestep(TICK_MILLIS, MAX_TICKS_PER_FRAME);
     }
 
     @Override
     public void update(GameContainer gc, int delta)
             throws SlickException {
-        Input input = gc.getInput();
+        hud.beginUpdate();
+        TickMetrics metrics = world.getMetrics();
+        if (gc.getInput().isKeyPressed(METRICS_KEY)) {
+            metrics.setEnabled(!metrics.isEnabled());
+        }
+        if (gc.getInput().isKeyPressed(HUD_KEY)) {
+            hud.toggle();
+        }
+        
+        //the world always steps by whole ticks, whatever the time between frames
+        int steps = timestep.advance(delta);
+        for (int i = 0; i < steps; i++) {
+            world.update(actions, timestep.getTickMillis());
+            if (recorder != null) {
+                recorder.endTick();
+            }
+        }
         
-        world.update(input, delta);
+        hud.endUpdate();
+        
+        if (world.isGameOver()) {
+            stopRecording();
+            exportMetrics();
+            gc.exit();
+        }
+    }
+    
+    @Override
+    public boolean closeRequested() {
+        stopRecording();
+        exportMetrics();
+        return true;
     }
 
     @Override
     public void render(GameContainer gc, Graphics g)
             throws SlickException {
-    	world.render(g);
+        hud.beginRender();
+        RenderStats.beginFrame();
+        TickMetrics metrics = world.getMetrics();
+        long lap = metrics.start();
+    	renderer.render(g, timestep.getAlpha());
+        metrics.lap(TickPhase.RENDER, lap);
+        hud.endRender();
+        
+        hud.render(g, gc.getFPS(), world.getSprites().size());
+    }
+
+    // write out what is left of the recording, if any
+    private void stopRecording() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        recorder = null;
+    }
+
+    // write out the tick metrics, if any were recorded
+    private void exportMetrics() {
+        TickMetrics metrics = world.getMetrics();
+        if (metrics.get(TickPhase.SPRITES).getCount() == 0) {
+            return;
+        }
+        metrics.setEnabled(false);
+        try {
+            metrics.export(METRICS_FILE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     /** Start-up method. Creates the game and runs it.
-     * @param args Command-line arguments (ignored).
+     * @param args Command-line arguments, optionally --endless to play endless lanes
+     * and a file to record the run to.
      * @throws SlickException
      */
     public static void main(String[] args)
             throws SlickException {
-        AppGameContainer app = new AppGameContainer(new App());
+        boolean endless = false;
+        String replayFile = null;
+        for (String arg : args) {
+            if (arg.equals("--endless")) {
+                endless = true;
+            }
+            else {
+                replayFile = arg;
+            }
+        }
+        
+        AppGameContainer app = new AppGameContainer(new App(replayFile, endless));
+        //the performance overlay shows the frame rate along with the rest
         app.setShowFPS(false);
+        //the renderer copies a whole frame over the screen, clearing it first is wasted fill
+        app.setClearEachFrame(false);
         app.setDisplayMode(SCREEN_WIDTH, SCREEN_HEIGHT, false);
         app.start();
     }
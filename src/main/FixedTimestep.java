@@ -0,0 +1,76 @@
+package main;
+
+/**
+ * An accumulator turning the variable time between frames into a whole number of fixed
+ * ticks, so the world always steps by the same amount of time and runs are reproducible.
+ * What is left over after the last tick tells how far the next tick is, to interpolate
+ * the drawn positions between the last two ticks.
+ */
+public class FixedTimestep {
+	
+	private int tickMillis;
+	private int maxSteps;
+	
+	// time passed but not stepped yet, in milliseconds
+	private int accumulator;
+	// ticks thrown away because a frame took too long to catch up with
+	private long droppedTicks;
+	
+	/**
+	 * Create a fixed timestep
+	 * @param tickMillis Time stepped by every tick, in milliseconds
+	 * @param maxSteps Most ticks run in one frame, the rest of a long pause is dropped
+	 */
+	public FixedTimestep(int tickMillis, int maxSteps) {
+		if (tickMillis <= 0 || maxSteps <= 0) {
+			throw new IllegalArgumentException("Tick length and steps per frame must be positive");
+		}
+		this.tickMillis = tickMillis;
+		this.maxSteps = maxSteps;
+	}
+	
+	/**
+	 * Add the time of a frame and get how many ticks to step for it
+	 * @param delta Time passed since last frame (milliseconds).
+	 * @return The number of ticks to step, never more than the maximum steps per frame
+	 */
+	public int advance(int delta) {
+		accumulator += delta;
+		
+		int steps = accumulator / tickMillis;
+		accumulator -= steps * tickMillis;
+		
+		//after a long pause, catch up only a few ticks instead of falling further behind
+		if (steps > maxSteps) {
+			droppedTicks += steps - maxSteps;
+			steps = maxSteps;
+		}
+		
+		return steps;
+	}
+	
+	/**
+	 * Get how far the time is between the last tick and the next one, used to
+	 * interpolate the drawn positions
+	 * @return A fraction from 0 (at the last tick) to 1 (at the next tick)
+	 */
+	public float getAlpha() {
+		return (float) accumulator / tickMillis;
+	}
+	
+	/**
+	 * Get the time stepped by every tick
+	 * @return Length of a tick, in milliseconds
+	 */
+	public int getTickMillis() {
+		return tickMillis;
+	}
+	
+	/**
+	 * Get the number of ticks dropped so far after long pauses
+	 * @return Number of dropped ticks
+	 */
+	public long getDroppedTicks() {
+		return droppedTicks;
+	}
+}
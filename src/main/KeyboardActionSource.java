@@ -0,0 +1,38 @@
+package main;
+
+import org.newdawn.slick.Input;
+
+import input.Action;
+import input.ActionSource;
+
+/**
+ * Actions read from the arrow keys of a Slick keyboard.
+ */
+public class KeyboardActionSource implements ActionSource {
+	
+	private Input input;
+	
+	/**
+	 * Create a source of actions reading the keyboard
+	 * @param input A wrapped for all keyboard, mouse and controller input
+	 */
+	public KeyboardActionSource(Input input) {
+		this.input = input;
+	}
+	
+	@Override
+	public boolean isPressed(Action action) {
+		switch (action) {
+			case UP:
+				return input.isKeyPressed(Input.KEY_UP);
+			case DOWN:
+				return input.isKeyPressed(Input.KEY_DOWN);
+			case LEFT:
+				return input.isKeyPressed(Input.KEY_LEFT);
+			case RIGHT:
+				return input.isKeyPressed(Input.KEY_RIGHT);
+			default:
+				return false;
+		}
+	}
+}
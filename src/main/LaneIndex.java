@@ -0,0 +1,218 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A spatial index of the sprites of a level, grouped by lane.
+ * Every sprite stays on the row of App.TILE_SIZE height it was created on, and the
+ * sprites of each lane are kept sorted by their left edge, so a query only looks at
+ * a few lanes and a narrow range of x coordinates.
+ */
+public class LaneIndex {
+	
+	private ArrayList<ArrayList<Sprite>> lanes = new ArrayList<>();
+	// widest sprite of each lane, bounds how far left of a query a contact can start
+	private float[] maxWidth = new float[0];
+	// row number of the first lane, rows above the screen are negative
+	private int firstRow;
+	
+	/**
+	 * Get the row a y coordinate belongs to
+	 * @param y Y coordinate
+	 * @return The row number
+	 */
+	public static int rowOf(float y) {
+		return (int) Math.floor(y / App.TILE_SIZE);
+	}
+	
+	/**
+	 * Index all the sprites of a level, replacing whatever was indexed before
+	 * @param sprites All the sprites of the level
+	 */
+	public void rebuild(List<Sprite> sprites) {
+		lanes.clear();
+		maxWidth = new float[0];
+		firstRow = 0;
+		
+		if (sprites.isEmpty()) {
+			return;
+		}
+		
+		int minRow = Integer.MAX_VALUE;
+		int maxRow = Integer.MIN_VALUE;
+		for (Sprite sprite : sprites) {
+			int row = rowOf(sprite.getY());
+			minRow = Math.min(minRow, row);
+			maxRow = Math.max(maxRow, row);
+		}
+		
+		firstRow = minRow;
+		maxWidth = new float[maxRow - minRow + 1];
+		for (int i = minRow; i <= maxRow; i++) {
+			lanes.add(new ArrayList<>());
+		}
+		for (Sprite sprite : sprites) {
+			insert(sprite);
+		}
+		for (ArrayList<Sprite> lane : lanes) {
+			lane.sort((a, b) -> Float.compare(a.getLeft(), b.getLeft()));
+		}
+	}
+	
+	/**
+	 * Add one sprite to the index, growing it if the sprite lies outside the indexed rows
+	 * @param sprite The sprite to add
+	 */
+	public void add(Sprite sprite) {
+		sort(insert(sprite));
+	}
+	
+	/**
+	 * Take a sprite out of the index, while it is still in the row it was added to
+	 * @param sprite The sprite to take out
+	 * @return True if the sprite was in the index
+	 */
+	public boolean remove(Sprite sprite) {
+		int lane = rowOf(sprite.getY()) - firstRow;
+		if (lane < 0 || lane >= lanes.size()) {
+			return false;
+		}
+		return lanes.get(lane).remove(sprite);
+	}
+	
+	/*
+	 * Append a sprite to its lane, growing the index if needed, and return that lane
+	 */
+	private ArrayList<Sprite> insert(Sprite sprite) {
+		int row = rowOf(sprite.getY());
+		if (lanes.isEmpty()) {
+			firstRow = row;
+		}
+		
+		int prepended = Math.max(firstRow - row, 0);
+		int appended = Math.max(row - firstRow - lanes.size() + 1, 0);
+		if (prepended + appended > 0) {
+			for (int i = 0; i < prepended; i++) {
+				lanes.add(0, new ArrayList<>());
+			}
+			for (int i = 0; i < appended; i++) {
+				lanes.add(new ArrayList<>());
+			}
+			float[] grown = new float[lanes.size()];
+			System.arraycopy(maxWidth, 0, grown, prepended, maxWidth.length);
+			maxWidth = grown;
+			firstRow -= prepended;
+		}
+		
+		int lane = row - firstRow;
+		lanes.get(lane).add(sprite);
+		maxWidth[lane] = Math.max(maxWidth[lane], sprite.getWidth());
+		
+		return lanes.get(lane);
+	}
+	
+	/**
+	 * Move every lane down one row, once every sprite of the index has moved down a tile.
+	 * The sprites left in the bottom lane are dropped from the index, and that lane is
+	 * reused empty as the top lane, so scrolling allocates nothing.
+	 */
+	public void scrollDown() {
+		if (lanes.isEmpty()) {
+			return;
+		}
+		
+		ArrayList<Sprite> bottom = lanes.remove(lanes.size() - 1);
+		bottom.clear();
+		lanes.add(0, bottom);
+		System.arraycopy(maxWidth, 0, maxWidth, 1, maxWidth.length - 1);
+		maxWidth[0] = 0;
+	}
+	
+	/**
+	 * Restore the x order of every lane after the sprites have moved.
+	 * Sprites only move a little each frame, so every lane is nearly sorted already.
+	 */
+	public void sort() {
+		for (int i = 0; i < lanes.size(); i++) {
+			sort(lanes.get(i));
+		}
+	}
+	
+	/**
+	 * Collect every sprite whose box may overlap a region
+	 * @param left Left edge of the region
+	 * @param right Right edge of the region
+	 * @param fromRow First row of the region
+	 * @param toRow Last row of the region
+	 * @param result List the sprites found are written into, cleared first
+	 */
+	public void query(float left, float right, int fromRow, int toRow, ArrayList<Sprite> result) {
+		result.clear();
+		
+		int from = Math.max(fromRow - firstRow, 0);
+		int to = Math.min(toRow - firstRow, lanes.size() - 1);
+		
+		for (int i = from; i <= to; i++) {
+			ArrayList<Sprite> lane = lanes.get(i);
+			
+			//skip every sprite that ends before the region, no sprite is wider than maxWidth
+			int start = firstAtOrAfter(lane, left - maxWidth[i]);
+			for (int j = start; j < lane.size(); j++) {
+				Sprite sprite = lane.get(j);
+				if (sprite.getLeft() > right) {
+					break;
+				}
+				if (sprite.getRight() >= left) {
+					result.add(sprite);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Collect every sprite that may touch a sprite, in its lane or the lanes next to it
+	 * @param sprite The sprite in the middle of the query
+	 * @param margin Extra distance around the sprite to look at, in pixels
+	 * @param result List the sprites found are written into, cleared first
+	 */
+	public void queryAround(Sprite sprite, float margin, ArrayList<Sprite> result) {
+		int row = rowOf(sprite.getY());
+		
+		query(sprite.getLeft() - margin, sprite.getRight() + margin, row - 1, row + 1, result);
+	}
+	
+	/*
+	 * Index of the first sprite of a sorted lane whose left edge is not before x
+	 */
+	private static int firstAtOrAfter(ArrayList<Sprite> lane, float x) {
+		int low = 0;
+		int high = lane.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (lane.get(mid).getLeft() < x) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	/*
+	 * Insertion sort by left edge, linear when the lane is nearly sorted
+	 */
+	private static void sort(ArrayList<Sprite> lane) {
+		for (int i = 1; i < lane.size(); i++) {
+			Sprite sprite = lane.get(i);
+			float left = sprite.getLeft();
+			int j = i - 1;
+			while (j >= 0 && lane.get(j).getLeft() > left) {
+				lane.set(j + 1, lane.get(j));
+				j--;
+			}
+			lane.set(j + 1, sprite);
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package main;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * The objects of one level, ready to be played: its sprites, the lane index over them
+ * and, if used, the store its movers live in.
+ */
+public class Level {
+	
+	private ArrayList<Sprite> sprites;
+	// number of sprites read from the level file, the rest are arrivals added during play
+	private int numInitial;
+	private LaneIndex lanes = new LaneIndex();
+	// null when every mover updates itself
+	private MoverStore movers;
+	// fastest speed of any sprite of the level, pixels per millisec
+	private float maxSpeed;
+	// changed whenever the static sprites of the level move
+	private int layoutVersion;
+	// tiles put back as arrivals when a state is read, null to create new ones
+	private Sprite[] arrivals;
+	
+	/**
+	 * Create a level from its sprites, indexing them by lane
+	 * @param sprites All the sprites of the level
+	 * @param useMoverStore True to keep moving lane objects in a store of movers, false
+	 * to let every one of them update itself
+	 */
+	public Level(ArrayList<Sprite> sprites, boolean useMoverStore) {
+		this.sprites = sprites;
+		this.numInitial = sprites.size();
+		
+		if (useMoverStore) {
+			movers = new MoverStore();
+			for (Sprite sprite : sprites) {
+				sprite.attachTo(movers);
+			}
+		}
+		lanes.rebuild(sprites);
+		
+		for (Sprite sprite : sprites) {
+			maxSpeed = Math.max(maxSpeed, sprite.getSpeed());
+		}
+	}
+	
+	/**
+	 * Add a sprite to the level during play, such as an arrived player
+	 * @param sprite The sprite to add
+	 */
+	public void add(Sprite sprite) {
+		sprites.add(sprite);
+		lanes.add(sprite);
+		maxSpeed = Math.max(maxSpeed, sprite.getSpeed());
+	}
+	
+	/**
+	 * Let the level move along with the player after a tick. A fixed level stays where it is.
+	 * @param player The player
+	 * @return Number of rows scrolled
+	 */
+	public int scrollWith(Sprite player) {
+		return 0;
+	}
+	
+	/**
+	 * Get the row the player starts again on after a death. A fixed level always has the
+	 * player start again at the bottom of screen.
+	 * @return Y coordinate of the row
+	 */
+	public float getRespawnY() {
+		return World.PLAYER_INIT_Y;
+	}
+	
+	/**
+	 * Get a number changing whenever the static sprites of this level move, so whatever
+	 * is drawn of them knows to draw them again
+	 * @return The version of the layout
+	 */
+	public int getLayoutVersion() {
+		return layoutVersion;
+	}
+	
+	/**
+	 * Mark the static sprites of this level as moved
+	 */
+	protected void changeLayout() {
+		layoutVersion++;
+	}
+	
+	/**
+	 * Write the state of every object of this level that changes during play
+	 * @param buffer The buffer to write into
+	 */
+	public void writeState(ByteBuffer buffer) {
+		buffer.putInt(numInitial);
+		if (movers != null) {
+			movers.writeState(buffer);
+		}
+		for (int i = 0; i < numInitial; i++) {
+			Sprite sprite = sprites.get(i);
+			if (!sprite.isStatic()) {
+				sprite.writeState(buffer);
+			}
+		}
+		
+		buffer.putInt(sprites.size() - numInitial);
+		for (int i = numInitial; i < sprites.size(); i++) {
+			Sprite arrived = sprites.get(i);
+			buffer.putFloat(arrived.getX()).putFloat(arrived.getY());
+		}
+	}
+	
+	/**
+	 * Read back the state written by writeState, into the same level
+	 * @param buffer The buffer to read from
+	 * @throws IllegalArgumentException If the state is of a different level
+	 */
+	public void readState(ByteBuffer buffer) {
+		if (buffer.getInt() != numInitial) {
+			throw new IllegalArgumentException("State is of a different level");
+		}
+		if (movers != null) {
+			movers.readState(buffer);
+		}
+		for (int i = 0; i < numInitial; i++) {
+			Sprite sprite = sprites.get(i);
+			if (!sprite.isStatic()) {
+				sprite.readState(buffer);
+			}
+		}
+		
+		//keep the arrivals both states agree on, and put back the rest
+		int numArrived = buffer.getInt();
+		int kept = 0;
+		for (int i = 0; i < numArrived; i++) {
+			float x = buffer.getFloat();
+			float y = buffer.getFloat();
+			int index = numInitial + i;
+			if (kept == i && index < sprites.size() 
+					&& sprites.get(index).getX() == x && sprites.get(index).getY() == y) {
+				kept++;
+				continue;
+			}
+			if (kept == i) {
+				removeArrivals(numInitial + kept);
+			}
+			add(arrival(i, x, y));
+		}
+		if (kept == numArrived) {
+			removeArrivals(numInitial + kept);
+		}
+		lanes.sort();
+	}
+	
+	/**
+	 * Set the tiles put back as arrivals when a state is read, so reading one allocates
+	 * nothing. The tile of the i-th arrival of a state is the i-th one.
+	 * @param arrivals The tiles, or null to create new tiles
+	 */
+	public void setArrivals(Sprite[] arrivals) {
+		this.arrivals = arrivals;
+	}
+	
+	/*
+	 * Get the tile of an arrival of a state being read, at its place
+	 */
+	private Sprite arrival(int i, float x, float y) {
+		if (arrivals == null || i >= arrivals.length) {
+			return Tile.createArrivedTile(x, y);
+		}
+		arrivals[i].respawn(x, y, false);
+		return arrivals[i];
+	}
+	
+	/*
+	 * Take out every arrival from an index of the sprites on
+	 */
+	private void removeArrivals(int from) {
+		while (sprites.size() > from) {
+			lanes.remove(sprites.remove(sprites.size() - 1));
+		}
+	}
+	
+	/**
+	 * Drop every object of this level once it is finished
+	 */
+	public void release() {
+		sprites.clear();
+		lanes.rebuild(sprites);
+		movers = null;
+	}
+	
+	/**
+	 * Get the sprites of this level
+	 * @return All the sprites of the level
+	 */
+	public ArrayList<Sprite> getSprites() {
+		return sprites;
+	}
+	
+	/**
+	 * Get the lane index over the sprites of this level
+	 * @return The lane index
+	 */
+	public LaneIndex getLanes() {
+		return lanes;
+	}
+	
+	/**
+	 * Get the fastest speed of any sprite of this level, to know how far sprites
+	 * can move in one update
+	 * @return Speed in pixels per millisec
+	 */
+	public float getMaxSpeed() {
+		return maxSpeed;
+	}
+	
+	/**
+	 * Get the store the movers of this level live in
+	 * @return The store, or null if every mover updates itself
+	 */
+	public MoverStore getMovers() {
+		return movers;
+	}
+}
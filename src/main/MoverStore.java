@@ -0,0 +1,287 @@
+package main;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A store keeping the state of every moving lane object of a level in plain arrays,
+ * one entry per mover, so all of them can be moved and wrapped in one tight loop.
+ * Sprites attached to a store read and write their position here instead of in their
+ * own fields, and become thin handles onto their slot.
+ * A mover's position is a function of the time since the level started, not a sum of
+ * every frame's step, so it never drifts and the store can jump to any time at once.
+ */
+public class MoverStore {
+	
+	private static final int INIT_CAPACITY = 64;
+	
+	/* the edges of screen bouncing movers turn back at */
+	private static final float BOUNCE_LEFT = App.TILE_SIZE / 2;
+	private static final float BOUNCE_RIGHT = App.SCREEN_WIDTH - App.TILE_SIZE / 2;
+	
+	private int size;
+	// time since the level started, in milliseconds
+	private long time;
+	
+	// distance along the path of a mover at time 0, a wrapping mover's path starts where
+	// it re-appears at the left, a bouncing mover's path runs right from the left edge
+	// and then back
+	private double[] phase = new double[INIT_CAPACITY];
+	
+	// where each mover is at the current time
+	private float[] x = new float[INIT_CAPACITY];
+	// x coordinate at the start of the last update, to interpolate between updates
+	private float[] previousX = new float[INIT_CAPACITY];
+	private float[] y = new float[INIT_CAPACITY];
+	private float[] width = new float[INIT_CAPACITY];
+	private float[] height = new float[INIT_CAPACITY];
+	private float[] speed = new float[INIT_CAPACITY];
+	private boolean[] moveRight = new boolean[INIT_CAPACITY];
+	// whether a mover turns back at the edges of screen instead of wrapping around
+	private boolean[] bounce = new boolean[INIT_CAPACITY];
+	
+	/**
+	 * Add a mover to the store, at the given position at the current time
+	 * @param x X coordinate of the center
+	 * @param y Y coordinate of the center
+	 * @param width Width of the bounding box
+	 * @param height Height of the bounding box
+	 * @param speed Speed of move, pixels per millisec
+	 * @param moveRight Direction of move, true if going right
+	 * @param bounce True if the mover turns back at the edges of screen
+	 * @return The slot of the new mover
+	 */
+	public int add(float x, float y, float width, float height, float speed, 
+			boolean moveRight, boolean bounce) {
+		if (size == this.x.length) {
+			grow();
+		}
+		
+		this.y[size] = y;
+		this.width[size] = width;
+		this.height[size] = height;
+		this.speed[size] = speed;
+		this.bounce[size] = bounce;
+		rebase(size, x, moveRight);
+		this.previousX[size] = this.x[size];
+		
+		return size++;
+	}
+	
+	/**
+	 * Move every mover for a frame, wrapping or bouncing at the edges of screen
+	 * @param delta Time passed since last frame (milliseconds).
+	 */
+	public void update(int delta) {
+		time += delta;
+		for (int i = 0; i < size; i++) {
+			previousX[i] = x[i];
+			evaluate(i);
+		}
+	}
+	
+	/**
+	 * Move every mover straight to where it is at a given time, without stepping
+	 * through the frames in between
+	 * @param time Time since the level started (milliseconds).
+	 */
+	public void seek(long time) {
+		this.time = time;
+		for (int i = 0; i < size; i++) {
+			evaluate(i);
+			previousX[i] = x[i];
+		}
+	}
+	
+	/**
+	 * Get the time the movers are at
+	 * @return Time since the level started (milliseconds).
+	 */
+	public long getTime() {
+		return time;
+	}
+	
+	/**
+	 * Write the time and where every mover is along its path
+	 * @param buffer The buffer to write into
+	 */
+	public void writeState(ByteBuffer buffer) {
+		buffer.putLong(time).putInt(size);
+		for (int i = 0; i < size; i++) {
+			buffer.putDouble(phase[i]).putFloat(y[i]).put((byte) (moveRight[i] ? 1 : 0));
+		}
+	}
+	
+	/**
+	 * Read back the state written by writeState, into a store of the same movers.
+	 * Movers added after the state was written are moved to the time of the state.
+	 * @param buffer The buffer to read from
+	 * @throws IllegalArgumentException If the state is of more movers than the store has
+	 */
+	public void readState(ByteBuffer buffer) {
+		time = buffer.getLong();
+		int count = buffer.getInt();
+		if (count > size) {
+			throw new IllegalArgumentException("State is of a different set of movers");
+		}
+		for (int i = count; i < size; i++) {
+			evaluate(i);
+			previousX[i] = x[i];
+		}
+		for (int i = 0; i < count; i++) {
+			phase[i] = buffer.getDouble();
+			y[i] = buffer.getFloat();
+			moveRight[i] = buffer.get() != 0;
+			evaluate(i);
+			previousX[i] = x[i];
+		}
+	}
+	
+	/**
+	 * Get the number of movers in the store
+	 * @return Number of movers
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Get the x coordinate of a mover
+	 * @param slot The slot of the mover
+	 * @return X coordinate of the center
+	 */
+	public float getX(int slot) {
+		return x[slot];
+	}
+	/**
+	 * Get the x coordinate of a mover at the start of the last update
+	 * @param slot The slot of the mover
+	 * @return X coordinate of the center before the last update
+	 */
+	public float getPreviousX(int slot) {
+		return previousX[slot];
+	}
+	/**
+	 * Get the y coordinate of a mover
+	 * @param slot The slot of the mover
+	 * @return Y coordinate of the center
+	 */
+	public float getY(int slot) {
+		return y[slot];
+	}
+	/**
+	 * Get the bounding box width of a mover
+	 * @param slot The slot of the mover
+	 * @return Width of the bounding box
+	 */
+	public float getWidth(int slot) {
+		return width[slot];
+	}
+	/**
+	 * Get the bounding box height of a mover
+	 * @param slot The slot of the mover
+	 * @return Height of the bounding box
+	 */
+	public float getHeight(int slot) {
+		return height[slot];
+	}
+	/**
+	 * Get the speed of a mover
+	 * @param slot The slot of the mover
+	 * @return Speed in pixels per millisec
+	 */
+	public float getSpeed(int slot) {
+		return speed[slot];
+	}
+	/**
+	 * Get the direction of a mover
+	 * @param slot The slot of the mover
+	 * @return True if the mover is going right
+	 */
+	public boolean getMoveRight(int slot) {
+		return moveRight[slot];
+	}
+	
+	/**
+	 * Set the position of a mover
+	 * @param slot The slot of the mover
+	 * @param x X coordinate of the center
+	 * @param y Y coordinate of the center
+	 */
+	public void setPosition(int slot, float x, float y) {
+		this.y[slot] = y;
+		rebase(slot, x, moveRight[slot]);
+	}
+	/**
+	 * Set the direction of a mover
+	 * @param slot The slot of the mover
+	 * @param moveRight True if the mover is going right
+	 */
+	public void setMoveRight(int slot, boolean moveRight) {
+		rebase(slot, x[slot], moveRight);
+	}
+	
+	/*
+	 * Set where a mover is along its path so that it is at a position with a direction
+	 * at the current time
+	 */
+	private void rebase(int slot, float x, boolean moveRight) {
+		double travelled = (double) speed[slot] * time;
+		
+		if (bounce[slot]) {
+			//going right from the left edge, then back from the right edge
+			float offset = Math.max(0, Math.min(BOUNCE_RIGHT - BOUNCE_LEFT, x - BOUNCE_LEFT));
+			double distance = moveRight ? offset : 2 * (BOUNCE_RIGHT - BOUNCE_LEFT) - offset;
+			phase[slot] = distance - travelled;
+		}
+		else {
+			double distance = x + width[slot] / 2;
+			phase[slot] = moveRight ? distance - travelled : distance + travelled;
+		}
+		this.moveRight[slot] = moveRight;
+		evaluate(slot);
+	}
+	
+	/*
+	 * Work out the position and direction of a mover at the current time
+	 */
+	private void evaluate(int slot) {
+		double travelled = (double) speed[slot] * time;
+		
+		if (bounce[slot]) {
+			double span = BOUNCE_RIGHT - BOUNCE_LEFT;
+			double distance = wrap(phase[slot] + travelled, 2 * span);
+			moveRight[slot] = distance < span;
+			x[slot] = (float) (BOUNCE_LEFT + (moveRight[slot] ? distance : 2 * span - distance));
+		}
+		else {
+			//once they are off-screen, they re-appear at oppsite
+			double distance = phase[slot] + (moveRight[slot] ? travelled : -travelled);
+			x[slot] = (float) (wrap(distance, App.SCREEN_WIDTH + width[slot]) - width[slot] / 2);
+		}
+	}
+	
+	/*
+	 * Get a distance along a looping path of a given length, from 0 up to the length
+	 */
+	private static double wrap(double distance, double length) {
+		double wrapped = distance % length;
+		return wrapped < 0 ? wrapped + length : wrapped;
+	}
+	
+	/*
+	 * Double the capacity of every array
+	 */
+	private void grow() {
+		int capacity = x.length * 2;
+		phase = Arrays.copyOf(phase, capacity);
+		x = Arrays.copyOf(x, capacity);
+		previousX = Arrays.copyOf(previousX, capacity);
+		y = Arrays.copyOf(y, capacity);
+		width = Arrays.copyOf(width, capacity);
+		height = Arrays.copyOf(height, capacity);
+		speed = Arrays.copyOf(speed, capacity);
+		moveRight = Arrays.copyOf(moveRight, capacity);
+		bounce = Arrays.copyOf(bounce, capacity);
+	}
+}
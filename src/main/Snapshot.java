@@ -0,0 +1,68 @@
+package main;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A saved state of a world in one flat buffer, to branch from or go back to at any time.
+ * The buffer is kept between captures and only grows, so capturing and restoring the
+ * same level again and again allocates nothing.
+ */
+public class Snapshot {
+	
+	private static final int INIT_SIZE = 4096;
+	
+	private ByteBuffer buffer = ByteBuffer.allocate(INIT_SIZE);
+	
+	/**
+	 * Create an empty snapshot, to capture worlds into
+	 */
+	public Snapshot() {
+		buffer.limit(0);
+	}
+	
+	/**
+	 * Save the current state of a world, replacing what was saved before
+	 * @param world The world to save
+	 */
+	public void capture(World world) {
+		while (true) {
+			buffer.clear();
+			try {
+				world.save(buffer);
+				buffer.flip();
+				return;
+			} catch (BufferOverflowException e) {
+				buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+			}
+		}
+	}
+	
+	/**
+	 * Put a world back into the saved state, as often as needed
+	 * @param world A world playing the same levels as the saved one
+	 * @throws IllegalArgumentException If the saved state is not of a world of the same levels
+	 */
+	public void restore(World world) {
+		buffer.rewind();
+		world.restore(buffer);
+	}
+	
+	/**
+	 * Get the size of the saved state
+	 * @return Size in bytes
+	 */
+	public int size() {
+		return buffer.limit();
+	}
+	
+	/**
+	 * Get the saved state, such as to write it to a file
+	 * @return A read-only view of the saved bytes
+	 */
+	public ByteBuffer getBuffer() {
+		ByteBuffer view = buffer.asReadOnlyBuffer();
+		view.rewind();
+		return view;
+	}
+}
@@ -1,45 +1,54 @@
 package main;
 
-import org.newdawn.slick.Input;
-import org.newdawn.slick.Image;
-import org.newdawn.slick.SlickException;
+import java.nio.ByteBuffer;
 
+import input.ActionSource;
+import utilities.AssetMetadata;
 import utilities.BoundingBox;
 import utilities.Position;
+import utilities.TagRegistry;
 
 /**
  * A abstract class represent every single item in the world of game
  * each item will has its (x, y) position, image, a boudingbox around it, and possibly
  * a special tag. 
- * Can update and render itself.
+ * Can update itself, drawing it is left to the front end, so the image is only known
+ * by its path and its size is read from the asset metadata.
  */
 public abstract class Sprite{
 	
 	/** A defined constant to avoid typos, means fatal to player */
-	public final static String HAZARD = "hazard";
+	public final static long HAZARD = TagRegistry.intern("hazard");
 	/** A defined constant to avoid typos, means player can't move in */
-	public final static String SOLID = "solid";
+	public final static long SOLID = TagRegistry.intern("solid");
 	/** A defined constant to avoid typos, means player can ride on it and avoid dead */
-	public final static String RIDEABLE = "rideable";
+	public final static long RIDEABLE = TagRegistry.intern("rideable");
 	/** A defined constant to avoid typos, means ONLY player can ride on it and avoid dead */
-	public final static String LIMITRIDEABLE = "limitRideable";
+	public final static long LIMITRIDEABLE = TagRegistry.intern("limitRideable");
 	/** A defined constant to avoid typos, means a sprite can push another sprite to move */
-	public final static String PUSH = "push";
+	public final static long PUSH = TagRegistry.intern("push");
 	
-	private Image image;
+	private String imageSrc;
 	private Position position;
 	private BoundingBox box;
+	// position at the start of the last update, to interpolate between updates
+	private float previousX;
+	private float previousY;
 	
-	private String[] tags;
+	// one bit for every tag of this sprite
+	private long tags;
+	
+	// when attached to a store, the position lives in the store instead of position and box
+	private MoverStore store;
+	private int slot = -1;
 	
 	/**
 	 * Create a new sprite with image pathway and xy coordinate
 	 * @param imageSrc The path to the image represents the sprite
 	 * @param x X coordinate of the center
 	 * @param y Y coordinate of the center
-	 * @throws SlickException
 	 */
-	public Sprite(String imageSrc, float x, float y) throws SlickException {
+	public Sprite(String imageSrc, float x, float y) {
 		setupSprite(imageSrc, x, y);
 	}
 	
@@ -48,10 +57,9 @@ public abstract class Sprite{
 	 * @param imageSrc The path to the image represents the sprite
 	 * @param x X coordinate of the center
 	 * @param y Y coordinate of the center
-	 * @param tags Tags of a kind a sprite
-	 * @throws SlickException
+	 * @param tags Tags of a kind a sprite, combined with |
 	 */
-	public Sprite(String imageSrc, float x, float y, String[] tags) {
+	public Sprite(String imageSrc, float x, float y, long tags) {
 		setupSprite(imageSrc, x, y);
 		this.tags = tags;
 	}
@@ -60,33 +68,144 @@ public abstract class Sprite{
 	 * Set up initial state of a sprite
 	 */
 	private void setupSprite(String imageSrc, float x, float y) {
-		try {
-			image = new Image(imageSrc);
-		} catch (SlickException e) {
-			e.printStackTrace();
-		}
+		this.imageSrc = imageSrc;
 		
 		position = new Position(x, y);
+		previousX = x;
+		previousY = y;
 		
-		box = new BoundingBox(image, (int)x, (int)y);
+		box = new BoundingBox((int)x, (int)y, AssetMetadata.getWidth(imageSrc), 
+				AssetMetadata.getHeight(imageSrc));
 		
-		tags = new String[0];		
+		tags = 0;
 	}
 	
 	/**
 	 * Update the state of sprite for a frame.
-	 * @param input A wrapped for all keyboard, mouse and controller input
+	 * @param actions The actions asked for by whoever controls the game
 	 * @param delta Time passed since last frame (milliseconds).
 	 */
-	public void update(Input input, int delta) {
+	public void update(ActionSource actions, int delta) {
+	}
+	
+	/**
+	 * Remember the current position as the start of the next update, sprites attached
+	 * to a store of movers are remembered by the store
+	 */
+	public void savePrevious() {
+		previousX = getX();
+		previousY = getY();
+	}
+	
+	/**
+	 * Put a sprite taken from a pool back into play, as if it was just created
+	 * @param x X coordinate of the center
+	 * @param y Y coordinate of the center
+	 * @param moveRight Direction of move, ignored by sprites that don't move
+	 */
+	public void respawn(float x, float y, boolean moveRight) {
+		setPosition(x, y);
+		savePrevious();
+	}
+	
+	/**
+	 * Write the state of this sprite that changes during play, sprites attached to a store
+	 * of movers are written by the store
+	 * @param buffer The buffer to write into
+	 */
+	public void writeState(ByteBuffer buffer) {
+		if (!isStored()) {
+			buffer.putFloat(getX()).putFloat(getY());
+		}
+	}
+	
+	/**
+	 * Read back the state written by writeState, as the start of the next update
+	 * @param buffer The buffer to read from
+	 */
+	public void readState(ByteBuffer buffer) {
+		if (!isStored()) {
+			setPosition(buffer.getFloat(), buffer.getFloat());
+			savePrevious();
+		}
+	}
+	
+	/**
+	 * Get the x coordinate of this sprite at the start of the last update
+	 * @return X coordinate of the center before the last update
+	 */
+	public float getPreviousX() {
+		return store == null ? previousX : store.getPreviousX(slot);
+	}
+	
+	/**
+	 * Get the y coordinate of this sprite at the start of the last update
+	 * @return Y coordinate of the center before the last update
+	 */
+	public float getPreviousY() {
+		return store == null ? previousY : getY();
 	}
 	
 	/**
-	 * Render the sprite on screen.
-	 * @throws SlickException
+	 * Get the speed this sprite moves at by itself
+	 * @return Speed in pixels per millisec, 0 for sprites that don't move by themselves
 	 */
-	public void render() throws SlickException {
-		image.drawCentered(position.getX(), position.getY());
+	public float getSpeed() {
+		return 0;
+	}
+	
+	/**
+	 * Get the x coordinate to draw this sprite at, between the last two updates
+	 * @param alpha How far the time is from the last update (0) to the next one (1)
+	 * @return Interpolated x coordinate of the center
+	 */
+	public float getRenderX(float alpha) {
+		return interpolate(getPreviousX(), getX(), alpha);
+	}
+	
+	/**
+	 * Get the y coordinate to draw this sprite at, between the last two updates
+	 * @param alpha How far the time is from the last update (0) to the next one (1)
+	 * @return Interpolated y coordinate of the center
+	 */
+	public float getRenderY(float alpha) {
+		return interpolate(getPreviousY(), getY(), alpha);
+	}
+	
+	/*
+	 * Blend two coordinates, a jump of a tile or more (wrapping around, going back
+	 * to start) is drawn at once instead of sliding across the screen
+	 */
+	private static float interpolate(float from, float to, float alpha) {
+		if (Math.abs(to - from) >= App.TILE_SIZE) {
+			return to;
+		}
+		return from + (to - from) * alpha;
+	}
+	
+	/**
+	 * Get the path to the image represents this sprite
+	 * @return The path to the image
+	 */
+	public String getImageSrc() {
+		return imageSrc;
+	}
+	
+	/**
+	 * Indicate whether a sprite never moves nor changes, so it can be drawn once into
+	 * the background of a level
+	 * @return True if the sprite is static
+	 */
+	public boolean isStatic() {
+		return false;
+	}
+	
+	/**
+	 * Indicate whether a sprite should be drawn on screen this frame
+	 * @return True if it should be drawn
+	 */
+	public boolean isVisible() {
+		return true;
 	}
 	
 	/**
@@ -95,7 +214,33 @@ public abstract class Sprite{
 	 * @return True if this sprite is contacting with other sprite
 	 */
 	public boolean contactSprite(Sprite other) {
-		return this.box.intersects (other.getBox());
+		return !(other.getLeft() > getRight()
+			  || other.getRight() < getLeft()
+			  || other.getTop() > getBottom()
+			  || other.getBottom() < getTop());
+	}
+	
+	/**
+	 * Determine whether other sprite touched this sprite at any time during the last update,
+	 * its bounding box swept along its move from the previous position to the current one,
+	 * so a fast sprite can't pass through this one between two updates.
+	 * A jump of half the screen or more is a wrap around, only where it landed counts.
+	 * @param other The other sprite.
+	 * @return True if the other sprite swept through this sprite
+	 */
+	public boolean sweptContact(Sprite other) {
+		float dx = other.getX() - other.getPreviousX();
+		if (dx == 0 || Math.abs(dx) >= App.SCREEN_WIDTH / 2) {
+			return contactSprite(other);
+		}
+		
+		//the box at its previous position and every position up to the current one
+		float left = other.getLeft() - Math.max(dx, 0);
+		float right = other.getRight() - Math.min(dx, 0);
+		return !(left > getRight()
+			  || right < getLeft()
+			  || other.getTop() > getBottom()
+			  || other.getBottom() < getTop());
 	}
 	
 	/**
@@ -105,11 +250,10 @@ public abstract class Sprite{
 	 * @param moveRight Whether are going towards right
 	 */
 	public void move(float speed, int delta, boolean moveRight) {
-		float x = moveRight ? getPosition().getX() + delta * speed : 
-			getPosition().getX() - delta * speed;
-		float y = getPosition().getY();
+		float x = moveRight ? getX() + delta * speed : 
+			getX() - delta * speed;
 				
-		setPosition(x, y);
+		setPosition(x, getY());
 	}
 	
 	/**
@@ -118,7 +262,7 @@ public abstract class Sprite{
 	 * @return True if this sprite is at the front of other sprite
 	 */
 	public boolean atFrontOf(Sprite other) {
-		return this.box.atFrontOf(other.getBox());
+		return (Math.abs(other.getRight() - getLeft()) < 1 && other.getTop() == getTop());
 	}
 	
 	/**
@@ -131,27 +275,40 @@ public abstract class Sprite{
 	}
 	
 	/**
-	 * Determine whether a sprite contains a specific tag
-	 * @param tag Specific tag a sprite may contain
+	 * Determine whether a sprite contains a specific tag, or any of several tags
+	 * @param tag Specific tag a sprite may contain, several tags can be combined with |
 	 * @return True if this sprite contains specific tag
 	 */
-	public boolean hasTag(String tag) {
-		for (String test : tags) {
-			if (tag.equals(test)) {
-				return true;
-			}
-		}
-		return false;
+	public boolean hasTag(long tag) {
+		return (tags & tag) != 0;
+	}
+	
+	/**
+	 * Determine whether a sprite contains a tag given by its name
+	 * @param name Name of the tag a sprite may contain
+	 * @return True if this sprite contains the tag
+	 */
+	public boolean hasTag(String name) {
+		return hasTag(TagRegistry.lookup(name));
+	}
+	
+	/**
+	 * Add a tag to this sprite
+	 * @param tag The tag to add, several tags can be combined with |
+	 */
+	public void addTag(long tag) {
+		tags |= tag;
 	}
 	
 	/**
-	 * Let the other sprite moving with this sprite, update the position of this sprite
+	 * Let the other sprite moving with this sprite, work out the new position of the other sprite
 	 * @param sprite The other sprite is riding on this sprite
 	 * @param delta Time passed since last frame (milliseconds).
-	 * @return The new position of sprite
+	 * @param result The new position of the other sprite is written into it
+	 * @return True if this sprite can be ridden and result was written
 	 */
-	public Position beRideBy(Sprite sprite, int delta) {
-		return null;
+	public boolean beRideBy(Sprite sprite, int delta, Position result) {
+		return false;
 	}
 	
 	/**
@@ -167,13 +324,73 @@ public abstract class Sprite{
 	 * @return A position variable of Position class represents the current position of this sprite
 	 */
 	public Position getPosition () {
-		return new Position(position.getX(), position.getY());
+		return new Position(getX(), getY());
+	}
+	/**
+	 * Get the x coordinate of the center of this sprite, without copying its position
+	 * @return X coordinate
+	 */
+	public float getX() {
+		return store == null ? position.getX() : store.getX(slot);
+	}
+	/**
+	 * Get the y coordinate of the center of this sprite, without copying its position
+	 * @return Y coordinate
+	 */
+	public float getY() {
+		return store == null ? position.getY() : store.getY(slot);
+	}
+	/**
+	 * Get the left edge of the bounding box of this sprite
+	 * @return A float variable represents the left edge
+	 */
+	public float getLeft() {
+		return store == null ? box.getLeft() : store.getX(slot) - store.getWidth(slot) / 2;
+	}
+	/**
+	 * Get the right edge of the bounding box of this sprite
+	 * @return A float variable represents the right edge
+	 */
+	public float getRight() {
+		return getLeft() + getWidth();
+	}
+	/**
+	 * Get the top edge of the bounding box of this sprite
+	 * @return A float variable represents the top edge
+	 */
+	public float getTop() {
+		return store == null ? box.getTop() : store.getY(slot) - store.getHeight(slot) / 2;
+	}
+	/**
+	 * Get the bottom edge of the bounding box of this sprite
+	 * @return A float variable represents the bottom edge
+	 */
+	public float getBottom() {
+		return getTop() + getHeight();
+	}
+	/**
+	 * Get the width of the bounding box of this sprite
+	 * @return A float variable represents the width
+	 */
+	public float getWidth() {
+		return store == null ? box.getWidth() : store.getWidth(slot);
+	}
+	/**
+	 * Get the height of the bounding box of this sprite
+	 * @return A float variable represents the height
+	 */
+	public float getHeight() {
+		return store == null ? box.getHeight() : store.getHeight(slot);
 	}
 	/**
 	 * Get the bounding box of this sprite
 	 * @return A box variable of BoundingBox class around this sprite.
 	 */
 	public BoundingBox getBox () {
+		if (store != null) {
+			box.setX(getX());
+			box.setY(getY());
+		}
 		return new BoundingBox(this.box);
 	}
 	
@@ -183,6 +400,10 @@ public abstract class Sprite{
 	 * @param y: Y coordinate
 	 */
 	public void setPosition (float x, float y) {
+		if (store != null) {
+			store.setPosition(slot, x, y);
+			return;
+		}
 		position.setX(x);
 		position.setY(y);
 		box.setX(x);
@@ -193,10 +414,48 @@ public abstract class Sprite{
 	 * @param other Another position variable
 	 */
 	public void setPosition (Position other) {
-		position.setX(other.getX());
-		position.setY(other.getY());
-		box.setX(other.getX());
-		box.setY(other.getY());
+		setPosition(other.getX(), other.getY());
+	}
+	
+	/**
+	 * Move the state of this sprite into a store of movers, sprites that don't move
+	 * by themselves stay as they are
+	 * @param store The store of movers of the level
+	 */
+	public void attachTo(MoverStore store) {
+	}
+	
+	/**
+	 * Make this sprite a handle onto a slot of a store of movers, from now on its
+	 * position is read from and written into the store
+	 * @param store The store of movers of the level
+	 * @param slot The slot of this sprite in the store
+	 */
+	protected void attach(MoverStore store, int slot) {
+		this.store = store;
+		this.slot = slot;
+	}
+	
+	/**
+	 * Check whether this sprite is a handle onto a store of movers
+	 * @return True if the position of this sprite lives in a store
+	 */
+	public boolean isStored() {
+		return store != null;
+	}
+	/**
+	 * Get the store of movers this sprite is attached to
+	 * @return The store, or null if the sprite is not attached
+	 */
+	protected MoverStore getStore() {
+		return store;
+	}
+	/**
+	 * Get the slot of this sprite in its store of movers
+	 * @return The slot, or -1 if the sprite is not attached
+	 */
+	protected int getSlot() {
+		return slot;
 	}
 
 }
@@ -1,7 +1,5 @@
 package main;
 
-import org.newdawn.slick.SlickException;
-
 /**
  * A class represents all the motionless tile items in the game
  */
@@ -18,9 +16,8 @@ public class Tile extends Sprite {
 	 * @param x X coordinate of the center
 	 * @param y Y coordinate of the center
 	 * @return A tile object that represents Grass tile
-	 * @throws SlickException
 	 */
-	public static Tile createGrassTile(float x, float y) throws SlickException {
+	public static Tile createGrassTile(float x, float y) {
 		return new Tile(GRASS_PATH, x, y);
 	}
 	
@@ -29,9 +26,8 @@ public class Tile extends Sprite {
 	 * @param x X coordinate of the center
 	 * @param y Y coordinate of the center
 	 * @return A tile object that represents lives tile
-	 * @throws SlickException
 	 */
-	public static Tile createLivesTile(float x, float y) throws SlickException {
+	public static Tile createLivesTile(float x, float y) {
 		return new Tile(LIVES_PATH, x, y);
 	}
 	
@@ -42,7 +38,7 @@ public class Tile extends Sprite {
 	 * @return A tile object that represents water tile
 	 */
 	public static Tile createWaterTile(float x, float y) {
-		return new Tile(WATER_PATH, x, y, new String[] { Sprite.HAZARD });
+		return new Tile(WATER_PATH, x, y, Sprite.HAZARD);
 	}
 	
 	/**
@@ -52,7 +48,7 @@ public class Tile extends Sprite {
 	 * @return A tile object that represents arrived player tile
 	 */
 	public static Tile createArrivedTile(float x, float y) {
-		return new Tile(ARRIVED_PATH, x, y, new String[] { Sprite.HAZARD });
+		return new Tile(ARRIVED_PATH, x, y, Sprite.HAZARD);
 	}
 	
 	/**
@@ -62,13 +58,18 @@ public class Tile extends Sprite {
 	 * @return A tile object that represents tree tile
 	 */
 	public static Tile createTreeTile(float x, float y) {
-		return new Tile(TREE_PATH, x, y, new String[] { Sprite.SOLID });
+		return new Tile(TREE_PATH, x, y, Sprite.SOLID);
+	}
+	
+	@Override
+	public boolean isStatic() {
+		return true;
 	}
 	
-	private Tile(String imageSrc, float x, float y) throws SlickException {		
+	private Tile(String imageSrc, float x, float y) {		
 		super(imageSrc, x, y);
 	}
-	private Tile(String imageSrc, float x, float y, String[] tags) {		
+	private Tile(String imageSrc, float x, float y, long tags) {		
 		super(imageSrc, x, y, tags);
 	}
 }
@@ -1,25 +1,21 @@
 package main;
 
-import java.io.FileReader;
-import java.util.Scanner;
-import java.io.IOException;
-
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-
-import org.newdawn.slick.Graphics;
-import org.newdawn.slick.Input;
-import org.newdawn.slick.SlickException;
+import java.util.Collections;
 
 import character.ExtraLife;
 import character.Player;
-import rideableObject.RideableObject;
-import rideableObject.Turtle;
-import vehicle.Bike;
-import vehicle.Bulldozer;
-import vehicle.Vehicle;
+import input.ActionSource;
+import level.LevelManager;
+import metrics.TickMetrics;
+import metrics.TickPhase;
+import utilities.Rng;
 
 /**
- * A class represents and handles everything in the World of the game
+ * A class represents and handles everything in the World of the game.
+ * It does not depend on any display, so it can be stepped headless as well as
+ * drawn by the Slick front end.
  */
 public class World {
 	
@@ -32,161 +28,445 @@ public class World {
 	/** space of x coordinate between lives */
 	public static final float ARRIVEDPLAYER_Y = 48;
 	
+	/* first bytes of every saved state of a world */
+	private static final int STATE_MAGIC = 0x46524753;
 	/* max number of arrived player */
 	private static final int NUM_ARRIVEDPLAYER = 5;
-	/* pathway to game information of different level */
-	private static final String LEVEL0 = "assets/levels/0.lvl";
-	private static final String LEVEL1 = "assets/levels/1.lvl";
+	/** pathway to the list of levels of the game */
+	public static final String MANIFEST = "assets/levels/levels.txt";
 	
-	private ArrayList<Sprite> spritesLvl0 = new ArrayList<>();
-	private ArrayList<Sprite> spritesLvl1 = new ArrayList<>();
+	private LevelManager levels;
+	// the level being played, and its index in the manifest
+	private Level level;
+	private int levelIndex;
 	
+	// sprites found around the player
+	private ArrayList<Sprite> nearby = new ArrayList<>();
+	
+	// the world's own player, null in a multi-player world
 	private Player player;
 	private ExtraLife extraLife;
+	// players added besides the world's own, and whoever controls each of them
+	private ArrayList<Player> others = new ArrayList<>();
+	private ArrayList<ActionSource> otherActions = new ArrayList<>();
 	
 	private int numArrivedPlayer;
+	// tiles left at the destinations, made up front and reused by every level
+	private Tile[] arrivedTiles = new Tile[NUM_ARRIVEDPLAYER];
+	// arrivals over every level
+	private int totalArrived;
+	// rows the level scrolled by as the player advanced, in an endless level
+	private long rowsAdvanced;
+	
+	private long seed;
+	private Rng rng;
 	
-	// whether the game is at level 0
-	private boolean level0;
+	// time taken by each phase of a tick, when switched on
+	private TickMetrics metrics = new TickMetrics();
+	
+	// whether the last level is finished
+	private boolean finished;
+	
+	/**
+	 * Create a world by reading csv files and initializing all the objects in the game,
+	 * moving lane objects are kept in a store of movers
+	 */
+	public World() {
+		this(true);
+	}
 	
 	/**
 	 * Create a world by reading csv files and initializing all the objects in the game
-	 * @throws SlickException
+	 * @param useMoverStore True to keep moving lane objects in a store of movers, false
+	 * to let every one of them update itself
+	 */
+	public World(boolean useMoverStore) {
+		this(LevelManager.fromManifest(MANIFEST, useMoverStore), System.nanoTime());
+	}
+	
+	/**
+	 * Create a world playing the levels of a manager one after the other, with every
+	 * random choice drawn from a seed so the same seed and input always give the same run
+	 * @param levels The levels to play
+	 * @param seed Seed of every random choice in this world
+	 */
+	public World(LevelManager levels, long seed) {
+		this(levels, null, seed, false);
+	}
+	
+	/**
+	 * Create a world playing the levels of a manager one after the other, either for its
+	 * own player or only for the players added by addPlayer
+	 * @param levels The levels to play
+	 * @param seed Seed of every random choice in this world
+	 * @param multiPlayer True to have no player of its own, so the game is over once
+	 * every added player lost every live
+	 */
+	public World(LevelManager levels, long seed, boolean multiPlayer) {
+		this(levels, null, seed, multiPlayer);
+	}
+	
+	/**
+	 * Create a world playing a single given level, such as an endless one
+	 * @param level The level to play
+	 * @param seed Seed of every random choice in this world
 	 */
-	public World() throws SlickException {
-		readFile(LEVEL0, spritesLvl0);
-		readFile(LEVEL1, spritesLvl1);
+	public World(Level level, long seed) {
+		this(new LevelManager(Collections.<String>emptyList(), false, false), level, seed, false);
+	}
+	
+	private World(LevelManager levels, Level first, long seed, boolean multiPlayer) {
+		this.levels = levels;
+		this.seed = seed;
+		this.rng = new Rng(seed);
 		
-		player = new Player(PLAYER_INIT_X, PLAYER_INIT_Y);
-		extraLife = new ExtraLife(0, 0);
+		levelIndex = 0;
+		level = first != null ? first : levels.take(levelIndex);
+		level.setArrivals(arrivedTiles);
 		
-		numArrivedPlayer = 0;
+		player = multiPlayer ? null : new Player(PLAYER_INIT_X, PLAYER_INIT_Y);
+		extraLife = new ExtraLife(0, 0, rng);
+		for (int i = 0; i < NUM_ARRIVEDPLAYER; i++) {
+			arrivedTiles[i] = Tile.createArrivedTile(0, 0);
+		}
 		
-		level0 = true;
+		numArrivedPlayer = 0;
 	}
 	
 	/**
 	 * Update the state of a World for a frame.
-	 * @param input A wrapped for all keyboard, mouse and controller input
+	 * @param actions The actions asked for by whoever controls the player
 	 * @param delta Time passed since last frame (milliseconds). 
-	 * @throws SlickException 
 	 */
-	public void update(Input input, int delta) throws SlickException {
+	public void update(ActionSource actions, int delta) {
+		if (isGameOver()) {
+			return;
+		}
 		
-		//determine the current level
-		ArrayList<Sprite> current = (level0 ? spritesLvl0 : spritesLvl1);
+		ArrayList<Sprite> current = level.getSprites();
+		MoverStore movers = level.getMovers();
+		long lap = metrics.start();
 		
-		for (Sprite sprite : current) {
-			sprite.update(input, delta);
+		extraLife.savePrevious();
+		if (movers != null) {
+			movers.update(delta);
+		}
+		for (int i = 0; i < current.size(); i++) {
+			Sprite sprite = current.get(i);
+			if (!sprite.isStatic()) {
+				if (!sprite.isStored()) {
+					sprite.savePrevious();
+				}
+				sprite.update(actions, delta);
+			}
 		}
-		player.update(input, delta, current);
-		extraLife.update(input, delta, current);
+		level.getLanes().sort();
+		lap = metrics.lap(TickPhase.SPRITES, lap);
+		
+		extraLife.update(actions, delta, current);
+		lap = metrics.lap(TickPhase.EXTRA_LIFE, lap);
+		
+		if (player != null) {
+			lap = updatePlayer(player, actions, delta, lap);
+		}
+		for (int i = 0; i < others.size() && !finished; i++) {
+			Player other = others.get(i);
+			if (!other.isGameOver()) {
+				lap = updatePlayer(other, otherActions.get(i), delta, lap);
+			}
+		}
+	}
+	
+	/**
+	 * Add a player to this world besides its own, starting where every player starts.
+	 * It shares the levels, arrivals and extra life with every other player, but doesn't
+	 * scroll an endless level, and isn't part of the saved state of the world.
+	 * In a multi-player world, the game is over once every added player lost every live.
+	 * @param actions The actions asked for by whoever controls the new player
+	 * @return The new player
+	 */
+	public Player addPlayer(ActionSource actions) {
+		Player other = new Player(PLAYER_INIT_X, PLAYER_INIT_Y);
+		others.add(other);
+		otherActions.add(actions);
+		return other;
+	}
+	
+	/**
+	 * Take a player added by addPlayer out of this world
+	 * @param other The player to take out
+	 * @return True if the player was in this world
+	 */
+	public boolean removePlayer(Player other) {
+		int index = others.indexOf(other);
+		if (index < 0) {
+			return false;
+		}
+		others.remove(index);
+		otherActions.remove(index);
+		return true;
+	}
+	
+	/*
+	 * Update one player for a tick, after the sprites moved, return the time of the last lap
+	 */
+	private long updatePlayer(Player player, ActionSource actions, int delta, long lap) {
+		player.savePrevious();
+		
+		//the player only ever touches sprites in its own lane or the lanes next to it,
+		//widened by how far a sprite can have swept past it in this update
+		float margin = App.TILE_SIZE + level.getMaxSpeed() * delta;
+		level.getLanes().queryAround(player, margin, nearby);
+		player.update(actions, delta, nearby);
+		lap = metrics.lap(TickPhase.PLAYER, lap);
+		
+		level.getLanes().queryAround(player, margin, nearby);
 		
 		//if player is not riding something, check if it contact haszard
-		if (!player.riding(current, delta)) {
-			player.isDead(current);
+		player.setRespawn(PLAYER_INIT_X, level.getRespawnY());
+		if (!player.riding(nearby, delta)) {
+			player.isDead(nearby);
 		}
+		lap = metrics.lap(TickPhase.RIDING, lap);
 		
 		//if player being placed in front of push tag sprite, make it being push
-		for (Sprite sprite : current) {
+		for (int i = 0; i < nearby.size(); i++) {
+			Sprite sprite = nearby.get(i);
 			if (player.atFrontOf(sprite) && sprite.hasTag(Sprite.PUSH)) {
 				sprite.push(delta, player);
 			}
 		}
+		lap = metrics.lap(TickPhase.PUSH, lap);
+		
+		//an endless level scrolls as its own player advances, the extra life can't follow
+		if (player == this.player) {
+			int scrolled = level.scrollWith(player);
+			if (scrolled > 0) {
+				rowsAdvanced += scrolled;
+				extraLife.reset();
+			}
+		}
 		
 		//if player arrive one of the destinations
 		if (player.arrive()) {
-			current.add(Tile.createArrivedTile(player.getPosition().getX(), player.getPosition().getY()));
+			Tile arrived = arrivedTiles[numArrivedPlayer];
+			arrived.respawn(player.getX(), player.getY(), false);
+			level.add(arrived);
 			
 			numArrivedPlayer++;
+			totalArrived++;
 			
 			player.setPosition(PLAYER_INIT_X, PLAYER_INIT_Y);
 						
 			// if all the empty tiles are filled, end the world
 			if (numArrivedPlayer == NUM_ARRIVEDPLAYER) {
 				numArrivedPlayer = 0;
-				if (level0) {
-					level0 = false;
+				if (levelIndex + 1 < levels.size()) {
+					level.release();
+					levelIndex++;
+					level = levels.take(levelIndex);
+					level.setArrivals(arrivedTiles);
 					extraLife.reset();
 				}
 				else {
-					System.exit(0);
+					finished = true;
 				}
 			}
 		}
+		lap = metrics.lap(TickPhase.ARRIVAL, lap);
 		
 		// if player contact with extra life, add lives, reset player's position and extra life
 		if (player.contactSprite(extraLife) && extraLife.exist()) {
 			player.addLive();		
 			extraLife.reset();
 		}
+		return metrics.lap(TickPhase.PICKUP, lap);
 	}
 	
 	/**
-	 * Render the entire screen, so it reflects the current game state.
-     * @param g The Slick graphics object, used for drawing.
-     * @throws SlickException
+	 * Start the game over from the first level, with every player back at its start with
+	 * the lives it starts with
+	 * @throws IllegalStateException If the world plays a single given level
 	 */
-	public void render(Graphics g) throws SlickException {
-		//determine the current level
-		ArrayList<Sprite> current = (level0 ? spritesLvl0 : spritesLvl1);
+	public void reset() {
+		if (levels.size() == 0) {
+			throw new IllegalStateException("A world of a single given level can't start over");
+		}
+		level.release();
+		levelIndex = 0;
+		level = levels.take(levelIndex);
+		level.setArrivals(arrivedTiles);
 		
-		for (Sprite sprite : current) {
-			sprite.render();
+		numArrivedPlayer = 0;
+		totalArrived = 0;
+		rowsAdvanced = 0;
+		finished = false;
+		extraLife.reset();
+		if (player != null) {
+			player.reset();
+		}
+		for (int i = 0; i < others.size(); i++) {
+			others.get(i).reset();
 		}
-		player.render();
-		extraLife.render();
 	}
 	
-	// read game object information file and store them in a specific arraylist
-	private void readFile (String fileName, ArrayList<Sprite> sprites) {
-		try (Scanner file = new Scanner(new FileReader(fileName))) {
-			String text;
-			
-			while (file.hasNextLine()) {
-				text = file.nextLine();
-				String cells[] = text.split(",");
-				String object = cells[0];
-				float x = Float.parseFloat(cells[1]);
-				float y = Float.parseFloat(cells[2]);
-				
-				switch (object) {
-					case "water": 
-						sprites.add(Tile.createWaterTile(x, y));
-						break;
-					case "grass": 
-						sprites.add(Tile.createGrassTile(x, y));
-						break;
-					case "tree": 
-						sprites.add(Tile.createTreeTile(x, y));
-						break; 
-					case "bus": 
-						sprites.add(Vehicle.createBus(x, y, Boolean.parseBoolean(cells[3])));
-						break;
-					case "racecar": 
-						sprites.add(Vehicle.createRacecar(x, y, Boolean.parseBoolean(cells[3])));
-						break;
-					case "bulldozer": 
-						sprites.add(new Bulldozer(x, y, Boolean.parseBoolean(cells[3])));
-						break;
-					case "bike": 
-						sprites.add(new Bike(x, y, Boolean.parseBoolean(cells[3])));
-						break;
-					case "log": 
-						sprites.add(RideableObject.createLog(x, y, Boolean.parseBoolean(cells[3])));
-						break;
-					case "longLog": 
-						sprites.add(RideableObject.createLongLog(x, y, Boolean.parseBoolean(cells[3])));
-						break;
-					case "turtle": 
-						sprites.add(new Turtle(x, y, Boolean.parseBoolean(cells[3])));
-						break;
-					default:
-						break;
-				}
+	/**
+	 * Write everything that changes during play into a buffer, so the world can be put
+	 * back into this state later. The world's own player is written only if it has one.
+	 * @param buffer The buffer to write into, from its position
+	 * @throws java.nio.BufferOverflowException If the buffer is too small
+	 */
+	public void save(ByteBuffer buffer) {
+		buffer.putInt(STATE_MAGIC).putInt(levelIndex).putInt(numArrivedPlayer)
+				.putInt(totalArrived).put((byte) (finished ? 1 : 0)).putLong(rng.getState())
+				.putLong(rowsAdvanced).put((byte) (player != null ? 1 : 0));
+		if (player != null) {
+			player.writeState(buffer);
+		}
+		extraLife.writeState(buffer);
+		level.writeState(buffer);
+	}
+	
+	/**
+	 * Put the world back into a state written by save, of a world playing the same levels.
+	 * The world's own player is left where it is if the state has no player of its own.
+	 * @param buffer The buffer to read from, from its position
+	 * @throws IllegalArgumentException If the state is not of a world of the same levels,
+	 * or has a player of its own and this world doesn't
+	 */
+	public void restore(ByteBuffer buffer) {
+		if (buffer.getInt() != STATE_MAGIC) {
+			throw new IllegalArgumentException("Not a saved state of a world");
+		}
+		int index = buffer.getInt();
+		if (index != levelIndex) {
+			level.release();
+			levelIndex = index;
+			level = levels.take(levelIndex);
+			level.setArrivals(arrivedTiles);
+		}
+		
+		numArrivedPlayer = buffer.getInt();
+		totalArrived = buffer.getInt();
+		finished = buffer.get() != 0;
+		rng.setState(buffer.getLong());
+		rowsAdvanced = buffer.getLong();
+		if (buffer.get() != 0) {
+			if (player == null) {
+				throw new IllegalArgumentException("The state has a player a multi-player world hasn't");
+			}
+			player.readState(buffer);
+		}
+		extraLife.readState(buffer);
+		level.readState(buffer);
+	}
+	
+	/**
+	 * Move every lane object of the current level straight to where it is at a given
+	 * time since the level started, without stepping through the ticks in between.
+	 * The player and the extra life are left where they are.
+	 * @param time Time since the level started (milliseconds).
+	 */
+	public void seek(long time) {
+		MoverStore movers = level.getMovers();
+		if (movers == null) {
+			throw new IllegalStateException("seeking needs the movers in a store of movers");
+		}
+		
+		movers.seek(time);
+		level.getLanes().rebuild(level.getSprites());
+	}
+	
+	/**
+	 * Get the sprites of the current level
+	 * @return All the sprites of the level being played
+	 */
+	public ArrayList<Sprite> getSprites() {
+		return level.getSprites();
+	}
+	
+	/**
+	 * Get the index of the level being played
+	 * @return Index of the current level in the list of levels
+	 */
+	public int getLevelIndex() {
+		return levelIndex;
+	}
+	
+	/**
+	 * Get the time taken by each phase of the ticks of this world, switched off at first
+	 * @return The metrics of this world
+	 */
+	public TickMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Get a number changing whenever the static sprites of the current level move
+	 * @return The version of the layout of the current level
+	 */
+	public int getLayoutVersion() {
+		return level.getLayoutVersion();
+	}
+	
+	/**
+	 * Get the number of rows the current level scrolled by as the player advanced
+	 * @return Number of rows advanced, 0 in a level that doesn't scroll
+	 */
+	public long getRowsAdvanced() {
+		return rowsAdvanced;
+	}
+	
+	/**
+	 * Get the player of this world
+	 * @return The player, null in a multi-player world
+	 */
+	public Player getPlayer() {
+		return player;
+	}
+	
+	/**
+	 * Get the extra life of this world
+	 * @return The extra life
+	 */
+	public ExtraLife getExtraLife() {
+		return extraLife;
+	}
+	
+	/**
+	 * Get the number of players arrived at the destinations, over every level
+	 * @return Number of arrivals
+	 */
+	public int getArrivals() {
+		return totalArrived;
+	}
+	
+	/**
+	 * Get the seed every random choice of this world is drawn from
+	 * @return The seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Check whether the game has ended, either the player lost every live or
+	 * the last level is finished. A multi-player world is over once every player added
+	 * lost every live, and never while there is none.
+	 * @return True if the game is over
+	 */
+	public boolean isGameOver() {
+		if (finished) {
+			return true;
+		}
+		if (player != null) {
+			return player.isGameOver();
+		}
+		for (int i = 0; i < others.size(); i++) {
+			if (!others.get(i).isGameOver()) {
+				return false;
 			}
-		} catch (Exception e) {
-			e.printStackTrace();
 		}
+		return !others.isEmpty();
 	}
 }
@@ -0,0 +1,114 @@
+package metrics;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies in nanoseconds, with buckets growing with the latency so every
+ * bucket is within about 6% of the latencies in it.
+ * Recording only counts into a fixed array, it never allocates.
+ */
+public class LatencyHistogram {
+	
+	/* each power of two is split into 2^SUB_BITS buckets */
+	private static final int SUB_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	/* latencies from 2^MAX_EXPONENT ns, about 18 minutes, up go in the last bucket */
+	private static final int MAX_EXPONENT = 40;
+	private static final int NUM_BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+	
+	private long[] counts = new long[NUM_BUCKETS];
+	private long count;
+	private long max;
+	
+	/**
+	 * Record one latency
+	 * @param nanos The latency, in nanoseconds
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		counts[bucketOf(nanos)]++;
+		count++;
+		if (nanos > max) {
+			max = nanos;
+		}
+	}
+	
+	/**
+	 * Get a percentile of the recorded latencies
+	 * @param percentile The percentile, from 0 to 100
+	 * @return The highest latency of the bucket the percentile falls in, no more than the
+	 * largest latency recorded, 0 if nothing was recorded
+	 */
+	public long getPercentile(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(highestOf(i), max);
+			}
+		}
+		return max;
+	}
+	
+	/**
+	 * Get the largest latency recorded
+	 * @return The largest latency, in nanoseconds
+	 */
+	public long getMax() {
+		return max;
+	}
+	
+	/**
+	 * Get the number of latencies recorded
+	 * @return Number of latencies
+	 */
+	public long getCount() {
+		return count;
+	}
+	
+	/**
+	 * Forget everything recorded
+	 */
+	public void reset() {
+		Arrays.fill(counts, 0);
+		count = 0;
+		max = 0;
+	}
+	
+	/*
+	 * Get the bucket of a latency: the small ones have a bucket each, the larger ones
+	 * share a bucket per sixteenth of their power of two
+	 */
+	private static int bucketOf(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) nanos;
+		}
+		
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		if (exponent > MAX_EXPONENT) {
+			return NUM_BUCKETS - 1;
+		}
+		int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+	
+	/*
+	 * Get the highest latency that goes in a bucket
+	 */
+	private static long highestOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		
+		int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		long width = 1L << (exponent - SUB_BITS);
+		return (1L << exponent) + (bucket % SUB_BUCKETS) * width + width - 1;
+	}
+}
@@ -0,0 +1,23 @@
+package metrics;
+
+/**
+ * The phases a tick of the world and a frame of the game are timed in.
+ */
+public enum TickPhase {
+	/** moving the lane objects and updating the other sprites */
+	SPRITES,
+	/** moving the player by the actions asked for */
+	PLAYER,
+	/** updating the extra life */
+	EXTRA_LIFE,
+	/** checking what the player rides on or dies of */
+	RIDING,
+	/** sprites pushing the player */
+	PUSH,
+	/** the player arriving at a destination, and moving on to the next level */
+	ARRIVAL,
+	/** the player picking up the extra life */
+	PICKUP,
+	/** drawing the world */
+	RENDER;
+}
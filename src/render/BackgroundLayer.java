@@ -0,0 +1,79 @@
+package render;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+
+/**
+ * An off-screen image holding every static sprite of a level, composited once when the
+ * level is loaded and then copied strip by strip into the lanes of the frame being redrawn.
+ * The layer is kept opaque, so a strip copied from it covers whatever the frame held there.
+ */
+public class BackgroundLayer {
+	
+	private Image layer;
+	private Graphics graphics;
+	
+	/**
+	 * Create an empty background layer of a given size
+	 * @param width Width of the layer, in pixels
+	 * @param height Height of the layer, in pixels
+	 * @throws SlickException
+	 */
+	public BackgroundLayer(int width, int height) throws SlickException {
+		layer = new Image(width, height);
+		graphics = layer.getGraphics();
+	}
+	
+	/**
+	 * Clear the layer, before compositing a new level into it
+	 */
+	public void clear() {
+		graphics.clear();
+	}
+	
+	/**
+	 * Composite one image on top of the layer, without rebuilding it.
+	 * Nothing shows up until flush() is called.
+	 * @param image The image to add
+	 * @param x X coordinate of the center
+	 * @param y Y coordinate of the center
+	 */
+	public void stamp(Image image, float x, float y) {
+		graphics.drawImage(image, x - image.getWidth() / 2, y - image.getHeight() / 2);
+	}
+	
+	/**
+	 * Finish every stamp made since the last flush, and make the whole layer opaque again
+	 */
+	public void flush() {
+		//write only the alpha channel, so what was left clear shows as black
+		graphics.setDrawMode(Graphics.MODE_ALPHA_MAP);
+		graphics.setColor(Color.white);
+		graphics.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+		graphics.setDrawMode(Graphics.MODE_NORMAL);
+		graphics.flush();
+	}
+	
+	/**
+	 * Draw a horizontal strip of the layer, at the same place on the target
+	 * @param g The Slick graphics object, used for drawing.
+	 * @param top Top edge of the strip
+	 * @param bottom Bottom edge of the strip
+	 */
+	public void renderStrip(Graphics g, float top, float bottom) {
+		g.drawImage(layer, 0, top, layer.getWidth(), bottom, 0, top, layer.getWidth(), bottom);
+		RenderStats.countDraw(layer.getTexture());
+		RenderStats.countFilled(layer.getWidth(), bottom - top);
+	}
+	
+	/**
+	 * Destroy the off-screen image of this layer
+	 * @throws SlickException
+	 */
+	public void destroy() throws SlickException {
+		graphics.destroy();
+		layer.destroy();
+	}
+}
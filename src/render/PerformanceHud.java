@@ -0,0 +1,184 @@
+package render;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Graphics;
+
+import main.App;
+import utilities.Allocations;
+
+/**
+ * An on-screen overlay of how the game performs: frame time, the split of a frame between
+ * updating and rendering the world, the sprites in the level and how many were drawn or
+ * culled, draw calls, bytes allocated per frame, the lanes redrawn and pixels filled, and a
+ * rolling graph of the last frame times.
+ * Only the update and the world's rendering are measured: the time spent drawing the
+ * overlay is left out of the frame time, so it doesn't show up in its own numbers. Its text
+ * is only rebuilt a few times a second.
+ */
+public class PerformanceHud {
+	
+	/* number of frames in the rolling graph */
+	private static final int GRAPH_FRAMES = 120;
+	/* size of the graph, in pixels */
+	private static final int GRAPH_HEIGHT = 60;
+	private static final int BAR_WIDTH = 2;
+	/* frame time drawn at the top of the graph, in milliseconds */
+	private static final float GRAPH_MAX_MILLIS = 50;
+	/* frame time of 60 frames per second, marked on the graph */
+	private static final float TARGET_MILLIS = 1000f / 60;
+	/* time between two refreshes of the text, in nanoseconds */
+	private static final long TEXT_REFRESH_NANOS = 250_000_000L;
+	
+	/* pixels on the screen, the unit of the fill shown */
+	private static final int SCREEN_PIXELS = App.SCREEN_WIDTH * App.SCREEN_HEIGHT;
+	
+	private static final int MARGIN = 8;
+	private static final int LINE_HEIGHT = 16;
+	private static final Color BACKGROUND = new Color(0, 0, 0, 0.6f);
+	private static final Color BAR = new Color(0.3f, 0.9f, 0.3f);
+	private static final Color SLOW_BAR = new Color(0.9f, 0.3f, 0.3f);
+	
+	private boolean visible;
+	
+	// the frame being measured
+	private long frameStart;
+	private long updateStart;
+	private long renderStart;
+	private long allocatedAtUpdate;
+	private long allocatedAtRender;
+	// time taken drawing the overlay since the frame started
+	private long overlayNanos;
+	
+	// what was measured of the last frame
+	private long frameNanos;
+	private long updateNanos;
+	private long renderNanos;
+	private long allocatedBytes;
+	
+	// frame times of the last frames, in milliseconds, oldest at next
+	private float[] graph = new float[GRAPH_FRAMES];
+	private int next;
+	
+	private String[] text = new String[5];
+	private long textRefreshed;
+	
+	/**
+	 * Show or hide the overlay, nothing is measured while it is hidden
+	 */
+	public void toggle() {
+		visible = !visible;
+		frameStart = 0;
+		overlayNanos = 0;
+	}
+	
+	/**
+	 * Check whether the overlay is shown
+	 * @return True if shown
+	 */
+	public boolean isVisible() {
+		return visible;
+	}
+	
+	/**
+	 * Mark the start of updating the world, which is also the start of a new frame
+	 */
+	public void beginUpdate() {
+		if (!visible) {
+			return;
+		}
+		
+		long now = System.nanoTime();
+		if (frameStart != 0) {
+			frameNanos = now - frameStart - overlayNanos;
+			graph[next] = frameNanos / 1e6f;
+			next = (next + 1) % GRAPH_FRAMES;
+		}
+		frameStart = now;
+		overlayNanos = 0;
+		updateStart = now;
+		allocatedAtUpdate = Allocations.allocatedBytes();
+	}
+	
+	/**
+	 * Mark the end of updating the world
+	 */
+	public void endUpdate() {
+		if (visible) {
+			updateNanos = System.nanoTime() - updateStart;
+			allocatedBytes = Allocations.allocatedBytes() - allocatedAtUpdate;
+		}
+	}
+	
+	/**
+	 * Mark the start of rendering the world
+	 */
+	public void beginRender() {
+		if (visible) {
+			allocatedAtRender = Allocations.allocatedBytes();
+			renderStart = System.nanoTime();
+		}
+	}
+	
+	/**
+	 * Mark the end of rendering the world, before the overlay is drawn
+	 */
+	public void endRender() {
+		if (visible) {
+			renderNanos = System.nanoTime() - renderStart;
+			allocatedBytes += Allocations.allocatedBytes() - allocatedAtRender;
+		}
+	}
+	
+	/**
+	 * Draw the overlay at the top left of the screen, if it is shown
+	 * @param g The Slick graphics object, used for drawing.
+	 * @param fps Frames per second, as counted by the game container
+	 * @param sprites Number of sprites in the current level
+	 */
+	public void render(Graphics g, int fps, int sprites) {
+		if (!visible) {
+			return;
+		}
+		
+		long now = System.nanoTime();
+		if (text[0] == null || now - textRefreshed > TEXT_REFRESH_NANOS) {
+			text[0] = String.format("%d fps  frame %.2f ms", fps, frameNanos / 1e6);
+			text[1] = String.format("update %.2f ms  render %.2f ms", updateNanos / 1e6, 
+					renderNanos / 1e6);
+			text[2] = String.format("%d sprites  %d drawn  %d culled", sprites, 
+					RenderStats.getDrawnSprites(), RenderStats.getCulledSprites());
+			text[3] = String.format("%d draws  %s B/frame", RenderStats.getDrawCalls(), 
+					Allocations.isSupported() ? Long.toString(allocatedBytes) : "?");
+			text[4] = String.format("%d/%d lanes  %.2f screens filled", RenderStats.getLanesRedrawn(), 
+					RenderStats.getLanes(), (float) RenderStats.getPixelsFilled() / SCREEN_PIXELS);
+			textRefreshed = now;
+		}
+		
+		int width = GRAPH_FRAMES * BAR_WIDTH;
+		int graphTop = MARGIN + text.length * LINE_HEIGHT;
+		Color old = g.getColor();
+		
+		g.setColor(BACKGROUND);
+		g.fillRect(0, 0, width + 2 * MARGIN, graphTop + GRAPH_HEIGHT + MARGIN);
+		
+		g.setColor(Color.white);
+		for (int i = 0; i < text.length; i++) {
+			g.drawString(text[i], MARGIN, MARGIN / 2 + i * LINE_HEIGHT);
+		}
+		
+		//one bar per frame, oldest at the left, frames slower than 60 fps in red
+		int bottom = graphTop + GRAPH_HEIGHT;
+		for (int i = 0; i < GRAPH_FRAMES; i++) {
+			float millis = graph[(next + i) % GRAPH_FRAMES];
+			float height = Math.min(millis, GRAPH_MAX_MILLIS) / GRAPH_MAX_MILLIS * GRAPH_HEIGHT;
+			g.setColor(millis > TARGET_MILLIS ? SLOW_BAR : BAR);
+			g.fillRect(MARGIN + i * BAR_WIDTH, bottom - height, BAR_WIDTH, height);
+		}
+		
+		g.setColor(Color.white);
+		float target = bottom - TARGET_MILLIS / GRAPH_MAX_MILLIS * GRAPH_HEIGHT;
+		g.drawLine(MARGIN, target, MARGIN + width, target);
+		g.setColor(old);
+		overlayNanos += System.nanoTime() - now;
+	}
+}
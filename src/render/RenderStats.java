@@ -0,0 +1,152 @@
+package render;
+
+import org.newdawn.slick.opengl.Texture;
+
+/**
+ * Counts the draw calls and texture binds issued while rendering one frame, the sprites
+ * drawn or culled for being out of view, and the pixels filled.
+ */
+public class RenderStats {
+	
+	private static int drawCalls;
+	private static int textureBinds;
+	private static Texture bound;
+	private static int drawnSprites;
+	private static int culledSprites;
+	private static int lanesRedrawn;
+	private static int lanes;
+	private static long pixelsFilled;
+	
+	private static int lastDrawCalls;
+	private static int lastTextureBinds;
+	private static int lastDrawnSprites;
+	private static int lastCulledSprites;
+	private static int lastLanesRedrawn;
+	private static int lastLanes;
+	private static long lastPixelsFilled;
+	
+	private RenderStats() {
+	}
+	
+	/**
+	 * Start counting a new frame, the counts of the previous frame are kept for reading
+	 */
+	public static void beginFrame() {
+		lastDrawCalls = drawCalls;
+		lastTextureBinds = textureBinds;
+		lastDrawnSprites = drawnSprites;
+		lastCulledSprites = culledSprites;
+		lastLanesRedrawn = lanesRedrawn;
+		lastLanes = lanes;
+		lastPixelsFilled = pixelsFilled;
+		drawCalls = 0;
+		textureBinds = 0;
+		drawnSprites = 0;
+		culledSprites = 0;
+		lanesRedrawn = 0;
+		lanes = 0;
+		pixelsFilled = 0;
+		bound = null;
+	}
+	
+	/**
+	 * Count one draw call using a texture, a bind is counted when the texture changes
+	 * @param texture The texture drawn from
+	 */
+	public static void countDraw(Texture texture) {
+		drawCalls++;
+		if (texture != bound) {
+			textureBinds++;
+			bound = texture;
+		}
+	}
+	
+	/**
+	 * Count one sprite drawn, whether on its own or in a batch
+	 */
+	public static void countDrawn() {
+		drawnSprites++;
+	}
+	
+	/**
+	 * Count one sprite skipped for being out of view
+	 */
+	public static void countCulled() {
+		culledSprites++;
+	}
+	
+	/**
+	 * Count the lanes of the screen redrawn this frame, the rest were kept from the last frame
+	 * @param redrawn Number of lanes redrawn
+	 * @param total Number of lanes on screen
+	 */
+	public static void countLanesRedrawn(int redrawn, int total) {
+		lanesRedrawn += redrawn;
+		lanes += total;
+	}
+	
+	/**
+	 * Count the pixels covered by one draw, whatever they are drawn into
+	 * @param width Width of the area drawn, in pixels
+	 * @param height Height of the area drawn, in pixels
+	 */
+	public static void countFilled(float width, float height) {
+		pixelsFilled += (long) (width * height);
+	}
+	
+	/**
+	 * Get the number of draw calls of the last finished frame
+	 * @return Number of draw calls
+	 */
+	public static int getDrawCalls() {
+		return lastDrawCalls;
+	}
+	
+	/**
+	 * Get the number of texture binds of the last finished frame
+	 * @return Number of texture binds
+	 */
+	public static int getTextureBinds() {
+		return lastTextureBinds;
+	}
+	
+	/**
+	 * Get the number of sprites drawn in the last finished frame
+	 * @return Number of sprites drawn
+	 */
+	public static int getDrawnSprites() {
+		return lastDrawnSprites;
+	}
+	
+	/**
+	 * Get the number of sprites skipped for being out of view in the last finished frame
+	 * @return Number of sprites culled
+	 */
+	public static int getCulledSprites() {
+		return lastCulledSprites;
+	}
+	
+	/**
+	 * Get the number of lanes redrawn in the last finished frame
+	 * @return Number of lanes redrawn
+	 */
+	public static int getLanesRedrawn() {
+		return lastLanesRedrawn;
+	}
+	
+	/**
+	 * Get the number of lanes on screen in the last finished frame
+	 * @return Number of lanes
+	 */
+	public static int getLanes() {
+		return lastLanes;
+	}
+	
+	/**
+	 * Get the number of pixels filled in the last finished frame, off-screen or on screen
+	 * @return Number of pixels filled
+	 */
+	public static long getPixelsFilled() {
+		return lastPixelsFilled;
+	}
+}
@@ -0,0 +1,134 @@
+package render;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+
+/**
+ * A single texture holding every image of a directory, packed in shelves at load time.
+ * Each packed image can be drawn as a sub region of the atlas, so a whole frame can
+ * be drawn between one startUse() and endUse() with a single texture bind.
+ */
+public class TextureAtlas {
+	
+	/* width of the atlas texture, in pixels */
+	private static final int ATLAS_WIDTH = 512;
+	/* empty pixels left around each image so neighbours don't bleed into each other */
+	private static final int PADDING = 2;
+	
+	private Image atlas;
+	private Map<String, Image> regions = new HashMap<>();
+	
+	/**
+	 * Pack every png image of a directory into one atlas
+	 * @param directory The directory holding the images
+	 * @return The atlas holding every image of the directory
+	 * @throws SlickException
+	 */
+	public static TextureAtlas pack(String directory) throws SlickException {
+		File[] files = new File(directory).listFiles((dir, name) -> name.endsWith(".png"));
+		if (files == null) {
+			throw new SlickException("Cannot read image directory " + directory);
+		}
+		Arrays.sort(files);
+		
+		List<String> paths = new ArrayList<>();
+		List<Image> images = new ArrayList<>();
+		for (File file : files) {
+			String path = directory + "/" + file.getName();
+			paths.add(path);
+			images.add(new Image(path));
+		}
+		
+		return new TextureAtlas(paths, images);
+	}
+	
+	private TextureAtlas(List<String> paths, List<Image> images) throws SlickException {
+		// tallest images first, so every shelf wastes as little height as possible
+		Integer[] order = new Integer[images.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> images.get(b).getHeight() - images.get(a).getHeight());
+		
+		int[] packedX = new int[order.length];
+		int[] packedY = new int[order.length];
+		int x = 0;
+		int y = 0;
+		int shelfHeight = 0;
+		
+		for (int i : order) {
+			Image image = images.get(i);
+			if (x + image.getWidth() + PADDING > ATLAS_WIDTH) {
+				x = 0;
+				y += shelfHeight;
+				shelfHeight = 0;
+			}
+			packedX[i] = x;
+			packedY[i] = y;
+			x += image.getWidth() + PADDING;
+			shelfHeight = Math.max(shelfHeight, image.getHeight() + PADDING);
+		}
+		
+		int height = 1;
+		while (height < y + shelfHeight) {
+			height *= 2;
+		}
+		
+		atlas = new Image(ATLAS_WIDTH, height);
+		atlas.setFilter(Image.FILTER_NEAREST);
+		Graphics g = atlas.getGraphics();
+		for (int i = 0; i < order.length; i++) {
+			g.drawImage(images.get(i), packedX[i], packedY[i]);
+		}
+		g.flush();
+		
+		for (int i = 0; i < order.length; i++) {
+			Image image = images.get(i);
+			regions.put(paths.get(i), atlas.getSubImage(packedX[i], packedY[i], 
+					image.getWidth(), image.getHeight()));
+			image.destroy();
+		}
+	}
+	
+	/**
+	 * Get the region of the atlas holding an image
+	 * @param path The path to the image
+	 * @return The region holding this image, or null if the image is not packed
+	 */
+	public Image getRegion(String path) {
+		return regions.get(path);
+	}
+	
+	/**
+	 * Bind the atlas texture and start a batch, every region drawn with
+	 * drawEmbedded until endUse() goes into this batch
+	 */
+	public void startUse() {
+		atlas.startUse();
+		RenderStats.countDraw(atlas.getTexture());
+	}
+	
+	/**
+	 * Finish the batch started by startUse()
+	 */
+	public void endUse() {
+		atlas.endUse();
+	}
+	
+	/**
+	 * Destroy the atlas texture
+	 * @throws SlickException
+	 */
+	public void destroy() throws SlickException {
+		regions.clear();
+		atlas.destroy();
+	}
+}
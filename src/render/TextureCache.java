@@ -0,0 +1,113 @@
+package render;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+
+/**
+ * A process-wide cache of decoded images, keyed by asset path.
+ * Every sprite drawn from the same file shares one texture, which is counted
+ * by reference and destroyed once the last sprite using it is released.
+ * Images packed into the atlas are served as atlas regions instead. Those are not counted:
+ * the atlas is a single texture shared by every level, kept for as long as it is set, so
+ * only images decoded on their own are ever destroyed by release.
+ */
+public class TextureCache {
+	
+	private static final Map<String, Entry> entries = new HashMap<>();
+	private static TextureAtlas atlas;
+	
+	/* a decoded image and the number of sprites still using it */
+	private static class Entry {
+		private final Image image;
+		private int references;
+		
+		private Entry(Image image) {
+			this.image = image;
+		}
+	}
+	
+	private TextureCache() {
+	}
+	
+	/**
+	 * Get the shared image of an asset, decoding it on first use.
+	 * An image packed into the atlas is its region of the atlas, with no reference counted.
+	 * @param path The path to the image
+	 * @return The shared image of this asset
+	 * @throws SlickException
+	 */
+	public static synchronized Image acquire(String path) throws SlickException {
+		if (isPacked(path)) {
+			return atlas.getRegion(path);
+		}
+		
+		Entry entry = entries.get(path);
+		
+		if (entry == null) {
+			entry = new Entry(new Image(path));
+			entries.put(path, entry);
+		}
+		entry.references++;
+		
+		return entry.image;
+	}
+	
+	/**
+	 * Give back one reference to the image of an asset, the texture is destroyed
+	 * when nothing uses it anymore. Nothing happens for an image served from the atlas.
+	 * @param path The path to the image
+	 */
+	public static synchronized void release(String path) {
+		Entry entry = entries.get(path);
+		
+		if (entry == null) {
+			return;
+		}
+		
+		entry.references--;
+		if (entry.references <= 0) {
+			entries.remove(path);
+			try {
+				entry.image.destroy();
+			} catch (SlickException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Serve every image packed in an atlas from that atlas from now on
+	 * @param packed The atlas, or null to decode every image on its own again
+	 */
+	public static synchronized void setAtlas(TextureAtlas packed) {
+		atlas = packed;
+	}
+	
+	/**
+	 * Get the atlas images are served from
+	 * @return The atlas, or null if there is none
+	 */
+	public static synchronized TextureAtlas getAtlas() {
+		return atlas;
+	}
+	
+	/**
+	 * Check whether an image is served from the atlas
+	 * @param path The path to the image
+	 * @return True if the image is a region of the atlas
+	 */
+	public static synchronized boolean isPacked(String path) {
+		return atlas != null && atlas.getRegion(path) != null;
+	}
+	
+	/**
+	 * Get the number of distinct textures currently held by the cache
+	 * @return Number of decoded textures
+	 */
+	public static synchronized int size() {
+		return entries.size();
+	}
+}
@@ -0,0 +1,347 @@
+package render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.lwjgl.opengl.GL11;
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+
+import character.Player;
+import main.App;
+import main.Sprite;
+import main.World;
+
+/**
+ * Draws a World with Slick.
+ * Static tiles of the current level are composited once into a background layer, every
+ * other sprite is drawn on top of it in one batch from the texture atlas.
+ * The frame is kept between frames, lanes nothing moves in are left as they are and only
+ * the others are restored from the background and drawn again. The whole retained frame
+ * is still copied to the screen every frame, as the back buffer holds nothing usable once
+ * it has been swapped, but that copy replaces clearing the screen.
+ * Sprites whose bounding box is out of the viewport, such as movers waiting off-screen
+ * to wrap around, are culled.
+ * The textures of a level are held from the cache while that level is shown.
+ */
+public class WorldRenderer {
+	
+	/* number of lanes a tile high covering the screen */
+	private static final int NUM_LANES = App.SCREEN_HEIGHT / App.TILE_SIZE + 1;
+	
+	private World world;
+	
+	// the part of the world shown on screen
+	private float viewLeft;
+	private float viewTop;
+	private float viewRight;
+	private float viewBottom;
+	
+	// the level currently drawn, and how many of its sprites are already in the background
+	private ArrayList<Sprite> level;
+	private int levelSize;
+	private int layoutVersion;
+	
+	private BackgroundLayer background;
+	
+	// the frame kept from one frame to the next
+	private Image frame;
+	private Graphics frameGraphics;
+	
+	// the sprites drawn this frame, and the lanes they are drawn in this frame and the last
+	private ArrayList<Sprite> drawables = new ArrayList<>();
+	private boolean[] occupied = new boolean[NUM_LANES];
+	private boolean[] wasOccupied = new boolean[NUM_LANES];
+	// lanes to redraw whether something is drawn in them or not
+	private boolean[] dirty = new boolean[NUM_LANES];
+	private Map<String, Image> images = new HashMap<>();
+	private Set<String> unpacked = new HashSet<>();
+	
+	/**
+	 * Create a renderer drawing a world
+	 * @param world The world to draw
+	 * @throws SlickException
+	 */
+	public WorldRenderer(World world) throws SlickException {
+		this.world = world;
+		background = new BackgroundLayer(App.SCREEN_WIDTH, App.SCREEN_HEIGHT);
+		frame = new Image(App.SCREEN_WIDTH, App.SCREEN_HEIGHT);
+		frameGraphics = frame.getGraphics();
+		setViewport(0, 0, App.SCREEN_WIDTH, App.SCREEN_HEIGHT);
+	}
+	
+	/**
+	 * Set the part of the world shown on screen, sprites entirely out of it are not drawn
+	 * @param left Left edge of the viewport
+	 * @param top Top edge of the viewport
+	 * @param width Width of the viewport
+	 * @param height Height of the viewport
+	 */
+	public void setViewport(float left, float top, float width, float height) {
+		viewLeft = left;
+		viewTop = top;
+		viewRight = left + width;
+		viewBottom = top + height;
+	}
+	
+	/**
+	 * Render the entire screen, so it reflects the current game state.
+	 * Only the lanes something is drawn in, this frame or the last one, are redrawn into
+	 * the retained frame. The retained frame is then copied over the whole screen, without
+	 * blending, so the screen needs no clearing before.
+	 * @param g The Slick graphics object, used for drawing.
+	 * @param alpha How far the time is from the last update (0) to the next one (1),
+	 * moving sprites are drawn between their last two positions
+	 * @throws SlickException
+	 */
+	public void render(Graphics g, float alpha) throws SlickException {
+		ArrayList<Sprite> current = world.getSprites();
+		
+		if (current != level) {
+			loadLevel(current);
+			Arrays.fill(dirty, true);
+		}
+		else if (world.getLayoutVersion() != layoutVersion) {
+			stampBackground(current);
+			Arrays.fill(dirty, true);
+		}
+		else if (current.size() > levelSize) {
+			stampArrived(current);
+		}
+		
+		collect(current, alpha);
+		
+		//a lane is redrawn if something is drawn in it now, or was drawn in it last frame,
+		//the background is opaque so its strip alone covers what the lane held
+		int redrawn = 0;
+		for (int lane = 0; lane < NUM_LANES; lane++) {
+			dirty[lane] |= occupied[lane] | wasOccupied[lane];
+			if (dirty[lane]) {
+				float top = Math.max(0, laneTop(lane));
+				float bottom = Math.min(App.SCREEN_HEIGHT, laneTop(lane) + App.TILE_SIZE);
+				background.renderStrip(frameGraphics, top, bottom);
+				redrawn++;
+			}
+		}
+		RenderStats.countLanesRedrawn(redrawn, NUM_LANES);
+		
+		Graphics.setCurrent(frameGraphics);
+		TextureAtlas atlas = TextureCache.getAtlas();
+		if (atlas == null) {
+			for (int i = 0; i < drawables.size(); i++) {
+				draw(drawables.get(i), alpha);
+			}
+		}
+		else {
+			//draw every packed sprite in one batch, then whatever is not in the atlas
+			atlas.startUse();
+			for (int i = 0; i < drawables.size(); i++) {
+				Sprite sprite = drawables.get(i);
+				if (!unpacked.contains(sprite.getImageSrc())) {
+					drawBatched(sprite, alpha);
+				}
+			}
+			atlas.endUse();
+			
+			for (int i = 0; i < drawables.size(); i++) {
+				Sprite sprite = drawables.get(i);
+				if (unpacked.contains(sprite.getImageSrc())) {
+					draw(sprite, alpha);
+				}
+			}
+		}
+		frameGraphics.flush();
+		Graphics.setCurrent(g);
+		
+		GL11.glDisable(GL11.GL_BLEND);
+		g.drawImage(frame, 0, 0);
+		GL11.glEnable(GL11.GL_BLEND);
+		RenderStats.countDraw(frame.getTexture());
+		RenderStats.countFilled(frame.getWidth(), frame.getHeight());
+		
+		boolean[] swap = wasOccupied;
+		wasOccupied = occupied;
+		occupied = swap;
+		Arrays.fill(dirty, false);
+	}
+	
+	/*
+	 * Gather every sprite to draw this frame, in drawing order, and mark the lanes they
+	 * are drawn in
+	 */
+	private void collect(ArrayList<Sprite> sprites, float alpha) {
+		drawables.clear();
+		Arrays.fill(occupied, false);
+		
+		for (int i = 0; i < sprites.size(); i++) {
+			Sprite sprite = sprites.get(i);
+			if (!sprite.isStatic()) {
+				collect(sprite, alpha);
+			}
+		}
+		Player player = world.getPlayer();
+		collect(player, alpha);
+		for (int i = 0; i < player.getLives().size(); i++) {
+			collect(player.getLives().get(i), alpha);
+		}
+		collect(world.getExtraLife(), alpha);
+	}
+	
+	/*
+	 * Gather one sprite if it is to be drawn this frame
+	 */
+	private void collect(Sprite sprite, float alpha) {
+		if (shouldDraw(sprite, alpha)) {
+			drawables.add(sprite);
+			float y = sprite.getRenderY(alpha);
+			markLanes(occupied, y - sprite.getHeight() / 2, y + sprite.getHeight() / 2);
+		}
+	}
+	
+	/*
+	 * Mark every lane a vertical span reaches into
+	 */
+	private static void markLanes(boolean[] lanes, float top, float bottom) {
+		int from = Math.max(0, laneOf(top));
+		int to = Math.min(NUM_LANES - 1, laneOf(bottom));
+		for (int lane = from; lane <= to; lane++) {
+			lanes[lane] = true;
+		}
+	}
+	
+	/*
+	 * Get the lane of a y coordinate, lanes are a tile high and centered on the rows
+	 * sprites are placed in
+	 */
+	private static int laneOf(float y) {
+		return (int) Math.floor((y + App.TILE_SIZE / 2) / App.TILE_SIZE);
+	}
+	
+	/*
+	 * Get the top edge of a lane
+	 */
+	private static float laneTop(int lane) {
+		return lane * App.TILE_SIZE - App.TILE_SIZE / 2;
+	}
+	
+	/*
+	 * Hold the textures of a new level, give back the ones of the old level and
+	 * composite the static tiles of the new level into the background
+	 */
+	private void loadLevel(ArrayList<Sprite> sprites) throws SlickException {
+		Map<String, Image> old = images;
+		images = new HashMap<>();
+		unpacked.clear();
+		
+		//acquire before releasing, so textures shared by both levels stay decoded
+		for (Sprite sprite : sprites) {
+			imageOf(sprite);
+		}
+		imageOf(world.getPlayer());
+		imageOf(world.getExtraLife());
+		for (String path : old.keySet()) {
+			TextureCache.release(path);
+		}
+		
+		level = sprites;
+		stampBackground(sprites);
+	}
+	
+	/*
+	 * Composite every static sprite of the level into a cleared background
+	 */
+	private void stampBackground(ArrayList<Sprite> sprites) throws SlickException {
+		background.clear();
+		for (int i = 0; i < sprites.size(); i++) {
+			Sprite sprite = sprites.get(i);
+			if (sprite.isStatic()) {
+				background.stamp(imageOf(sprite), sprite.getX(), sprite.getY());
+			}
+		}
+		background.flush();
+		
+		levelSize = sprites.size();
+		layoutVersion = world.getLayoutVersion();
+	}
+	
+	/*
+	 * Stamp static sprites added to the level since the last frame, such as arrived players
+	 */
+	private void stampArrived(ArrayList<Sprite> sprites) throws SlickException {
+		for (int i = levelSize; i < sprites.size(); i++) {
+			Sprite sprite = sprites.get(i);
+			if (sprite.isStatic()) {
+				background.stamp(imageOf(sprite), sprite.getX(), sprite.getY());
+				markLanes(dirty, sprite.getTop(), sprite.getBottom());
+			}
+		}
+		background.flush();
+		levelSize = sprites.size();
+	}
+	
+	/*
+	 * Get the image of a sprite, acquiring it from the cache the first time it is needed
+	 */
+	private Image imageOf(Sprite sprite) throws SlickException {
+		String path = sprite.getImageSrc();
+		Image image = images.get(path);
+		
+		if (image == null) {
+			image = TextureCache.acquire(path);
+			images.put(path, image);
+			if (!TextureCache.isPacked(path)) {
+				unpacked.add(path);
+			}
+		}
+		
+		return image;
+	}
+	
+	/*
+	 * Draw a sprite on its own
+	 */
+	private void draw(Sprite sprite, float alpha) throws SlickException {
+		Image image = imageOf(sprite);
+		image.drawCentered(sprite.getRenderX(alpha), sprite.getRenderY(alpha));
+		RenderStats.countDraw(image.getTexture());
+		RenderStats.countFilled(image.getWidth(), image.getHeight());
+	}
+	
+	/*
+	 * Draw a sprite whose image is packed into the batch of the atlas
+	 */
+	private void drawBatched(Sprite sprite, float alpha) throws SlickException {
+		Image image = imageOf(sprite);
+		image.drawEmbedded(sprite.getRenderX(alpha) - image.getWidth() / 2, 
+				sprite.getRenderY(alpha) - image.getHeight() / 2, image.getWidth(), image.getHeight());
+		RenderStats.countFilled(image.getWidth(), image.getHeight());
+	}
+	
+	/*
+	 * Check whether a sprite is visible and its bounding box, where it is drawn, reaches
+	 * into the viewport, counting it as drawn or culled
+	 */
+	private boolean shouldDraw(Sprite sprite, float alpha) {
+		if (!sprite.isVisible()) {
+			return false;
+		}
+		
+		float halfWidth = sprite.getWidth() / 2;
+		float halfHeight = sprite.getHeight() / 2;
+		float x = sprite.getRenderX(alpha);
+		float y = sprite.getRenderY(alpha);
+		if (x + halfWidth < viewLeft || x - halfWidth > viewRight 
+				|| y + halfHeight < viewTop || y - halfHeight > viewBottom) {
+			RenderStats.countCulled();
+			return false;
+		}
+		
+		RenderStats.countDrawn();
+		return true;
+	}
+}
@@ -0,0 +1,156 @@
+package replay;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import input.ScriptedActions;
+
+/**
+ * A recorded run: the seed of its world, what its world played, the length of its ticks
+ * and the actions the player read in every tick.
+ * A replay file starts with a header of
+ * <ul>
+ * <li>int magic, "FRGR"</li>
+ * <li>int version</li>
+ * <li>long seed of the world</li>
+ * <li>int length of a tick, in milliseconds</li>
+ * <li>byte mode of the world, LEVELS or ENDLESS</li>
+ * </ul>
+ * followed by runs of ticks with the same actions, each a byte of Action.mask() bits and
+ * the number of ticks in the run as an unsigned varint.
+ */
+public class Replay {
+	
+	/* first bytes of every replay file */
+	static final int MAGIC = 0x46524752;
+	/* version of the replay file layout */
+	static final int VERSION = 1;
+	
+	/** mode of a run playing the levels of the manifest */
+	public static final byte LEVELS = 0;
+	/** mode of a run playing an endless level generated from the seed */
+	public static final byte ENDLESS = 1;
+	
+	private long seed;
+	private byte mode;
+	private int tickMillis;
+	// actions of every tick
+	private int[] script;
+	
+	/**
+	 * Create a replay
+	 * @param seed Seed of the recorded world
+	 * @param mode LEVELS or ENDLESS, what the recorded world played
+	 * @param tickMillis Length of a tick, in milliseconds
+	 * @param script The actions of every tick, each a combination of Action.mask() bits
+	 */
+	public Replay(long seed, byte mode, int tickMillis, int[] script) {
+		if (mode != LEVELS && mode != ENDLESS) {
+			throw new IllegalArgumentException("Unknown replay mode " + mode);
+		}
+		this.seed = seed;
+		this.mode = mode;
+		this.tickMillis = tickMillis;
+		this.script = script;
+	}
+	
+	/**
+	 * Read a replay file
+	 * @param fileName Pathway to the replay
+	 * @return The replay
+	 * @throws IOException If the file can't be read or is not a valid replay
+	 */
+	public static Replay read(String fileName) throws IOException {
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(fileName)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(fileName + " is not a replay");
+			}
+			if (in.readInt() != VERSION) {
+				throw new IOException(fileName + " has an unsupported replay version");
+			}
+			long seed = in.readLong();
+			int tickMillis = in.readInt();
+			byte mode = in.readByte();
+			if (mode != LEVELS && mode != ENDLESS) {
+				throw new IOException(fileName + " has an unknown mode " + mode);
+			}
+			
+			int[] script = new int[1024];
+			int ticks = 0;
+			int mask;
+			while ((mask = in.read()) != -1) {
+				long run = readVarint(in, fileName);
+				if (ticks + run > Integer.MAX_VALUE - 8) {
+					throw new IOException(fileName + " is too long to replay");
+				}
+				if (ticks + run > script.length) {
+					script = Arrays.copyOf(script, (int) Math.max(ticks + run, script.length * 2L));
+				}
+				Arrays.fill(script, ticks, ticks + (int) run, mask);
+				ticks += run;
+			}
+			
+			return new Replay(seed, mode, tickMillis, Arrays.copyOf(script, ticks));
+		}
+	}
+	
+	/*
+	 * Read the length of a run, 7 bits a byte with the lowest bits first
+	 */
+	private static long readVarint(DataInputStream in, String fileName) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			int b = in.read();
+			if (b == -1) {
+				throw new EOFException(fileName + " is truncated");
+			}
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException(fileName + " has a malformed run length");
+	}
+	
+	/**
+	 * Get a fresh source of the recorded actions, to drive a world from its first tick
+	 * @return The recorded actions, asking for nothing once the recording ends
+	 */
+	public ScriptedActions actions() {
+		return new ScriptedActions(script, false);
+	}
+	
+	/**
+	 * Get the seed of the recorded world
+	 * @return The seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	/**
+	 * Get what the recorded world played
+	 * @return LEVELS or ENDLESS
+	 */
+	public byte getMode() {
+		return mode;
+	}
+	/**
+	 * Get the length of a tick of the recorded world
+	 * @return Length of a tick, in milliseconds
+	 */
+	public int getTickMillis() {
+		return tickMillis;
+	}
+	/**
+	 * Get the number of ticks recorded
+	 * @return Number of ticks
+	 */
+	public int getTicks() {
+		return script.length;
+	}
+}
@@ -0,0 +1,97 @@
+package replay;
+
+import java.io.IOException;
+
+import endless.EndlessLevel;
+import input.ScriptedActions;
+import level.LevelManager;
+import main.World;
+import simulation.WorldOutcome;
+
+/**
+ * Plays recorded runs back headless, as fast as the world can be stepped.
+ * The world is created from the recorded seed and driven by the recorded actions, so it
+ * goes through exactly the same run.
+ */
+public class ReplayPlayer {
+	
+	private LevelManager levels;
+	
+	/**
+	 * Create a player of replays
+	 * @param levels The levels the replays of levels were recorded on, endless replays
+	 * generate their lanes from their seed
+	 */
+	public ReplayPlayer(LevelManager levels) {
+		this.levels = levels;
+	}
+	
+	/**
+	 * Play a replay back from the start to its last tick, or until the game is over
+	 * @param replay The replay
+	 * @return What happened in the replayed world
+	 */
+	public WorldOutcome play(Replay replay) {
+		World world;
+		if (replay.getMode() == Replay.ENDLESS) {
+			world = new World(EndlessLevel.create(replay.getSeed(), true), replay.getSeed());
+		}
+		else {
+			world = new World(levels, replay.getSeed());
+		}
+		ScriptedActions actions = replay.actions();
+		int tickMillis = replay.getTickMillis();
+		
+		int ticks = 0;
+		while (ticks < replay.getTicks() && !world.isGameOver()) {
+			actions.nextTick();
+			world.update(actions, tickMillis);
+			ticks++;
+		}
+		
+		return new WorldOutcome(replay.getSeed(), world.getArrivals(), 
+				world.getPlayer().getDeaths(), ticks, world.isGameOver());
+	}
+	
+	/**
+	 * Play a replay file back a number of times, print its outcome and how fast it played,
+	 * and check every play gave the same outcome.
+	 * Run from the project directory, so the levels can be found.
+	 * @param args Pathway to the replay file, and number of plays (optional)
+	 * @throws IOException If the replay can't be read
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: ReplayPlayer <replay file> [plays]");
+			return;
+		}
+		Replay replay = Replay.read(args[0]);
+		int plays = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		
+		//every play reads its levels again, there is nothing to read ahead of
+		ReplayPlayer player = new ReplayPlayer(new LevelManager(
+				LevelManager.fromManifest(World.MANIFEST, true).getLevelFiles(), true, false));
+		WorldOutcome first = null;
+		long ticks = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < plays; i++) {
+			WorldOutcome outcome = player.play(replay);
+			ticks += outcome.getTicks();
+			
+			if (first == null) {
+				first = outcome;
+			}
+			else if (outcome.getArrivals() != first.getArrivals() 
+					|| outcome.getDeaths() != first.getDeaths() 
+					|| outcome.getTicks() != first.getTicks()) {
+				System.err.println("play " + i + " diverged from the first play");
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		
+		System.out.printf("seed %d: %d ticks, %d arrivals, %d deaths%s%n", first.getSeed(), 
+				first.getTicks(), first.getArrivals(), first.getDeaths(), 
+				first.isGameOver() ? ", game over" : "");
+		System.out.printf("%d plays in %.2f s, %.0f ticks/s%n", plays, seconds, ticks / seconds);
+	}
+}
@@ -0,0 +1,204 @@
+package replay;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import input.Action;
+import input.ActionSource;
+
+/**
+ * Records the actions a player reads from another source, tick by tick, into a replay file.
+ * Ticks with the same actions are packed into runs in a buffer, and full buffers are
+ * written out by a thread of the recorder's own, so the frame thread never waits on the disk.
+ * Buffers are reused, so recording allocates nothing once it started.
+ */
+public class ReplayRecorder implements ActionSource {
+	
+	/* size of each buffer of runs, in bytes */
+	private static final int BUFFER_SIZE = 4096;
+	/* number of buffers, filled ones waiting for the writer plus the one being filled */
+	private static final int NUM_BUFFERS = 4;
+	/* longest run written: a byte of actions and a varint of up to 10 bytes */
+	private static final int MAX_RUN_SIZE = 11;
+	/* handed to the writer to tell it the recording is over */
+	private static final ByteBuffer END = ByteBuffer.allocate(0);
+	
+	private ActionSource source;
+	
+	private BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(NUM_BUFFERS + 1);
+	private BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(NUM_BUFFERS);
+	private ByteBuffer buffer;
+	
+	private FileChannel channel;
+	private Thread writer;
+	// the first failure of the writer, reported when the recorder is closed
+	private volatile IOException failure;
+	
+	// actions reported in the current tick, and the run of ticks before it
+	private int pressed;
+	private int runMask;
+	private long runLength;
+	private boolean closed;
+	
+	/**
+	 * Create a recorder writing to a file, replacing anything in it
+	 * @param source The source the actions are read from
+	 * @param fileName Pathway to the replay file
+	 * @param seed Seed of the world being recorded
+	 * @param mode Replay.LEVELS or Replay.ENDLESS, what the world plays
+	 * @param tickMillis Length of a tick of the world, in milliseconds
+	 * @throws IOException If the file can't be written
+	 */
+	public ReplayRecorder(ActionSource source, String fileName, long seed, byte mode, 
+			int tickMillis) throws IOException {
+		this.source = source;
+		
+		channel = new FileOutputStream(fileName).getChannel();
+		ByteBuffer header = ByteBuffer.allocate(21);
+		header.putInt(Replay.MAGIC).putInt(Replay.VERSION).putLong(seed).putInt(tickMillis).put(mode);
+		header.flip();
+		while (header.hasRemaining()) {
+			channel.write(header);
+		}
+		
+		for (int i = 0; i < NUM_BUFFERS - 1; i++) {
+			free.add(ByteBuffer.allocate(BUFFER_SIZE));
+		}
+		buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		
+		writer = new Thread(this::write, "replay-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+	
+	@Override
+	public boolean isPressed(Action action) {
+		boolean isPressed = source.isPressed(action);
+		if (isPressed) {
+			pressed |= action.mask();
+		}
+		return isPressed;
+	}
+	
+	/**
+	 * Record the actions reported since the last call as one tick, must be called once
+	 * after every update of the world
+	 */
+	public void endTick() {
+		if (closed) {
+			return;
+		}
+		
+		if (runLength > 0 && pressed != runMask) {
+			putRun();
+		}
+		if (runLength == 0) {
+			runMask = pressed;
+		}
+		runLength++;
+		pressed = 0;
+	}
+	
+	/**
+	 * Write out everything recorded and close the file, waiting for the writer to finish
+	 * @throws IOException If any part of the recording couldn't be written
+	 */
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		
+		if (runLength > 0) {
+			putRun();
+		}
+		hand(buffer);
+		hand(END);
+		
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		channel.close();
+		
+		if (failure != null) {
+			throw failure;
+		}
+	}
+	
+	/*
+	 * Put the current run into the buffer, handing the buffer to the writer when full
+	 */
+	private void putRun() {
+		if (buffer.remaining() < MAX_RUN_SIZE) {
+			hand(buffer);
+			buffer = takeFree();
+		}
+		
+		buffer.put((byte) runMask);
+		long value = runLength;
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+		
+		runLength = 0;
+	}
+	
+	/*
+	 * Give a buffer to the writer
+	 */
+	private void hand(ByteBuffer buffer) {
+		buffer.flip();
+		try {
+			filled.put(buffer);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/*
+	 * Wait for the writer to give back a buffer
+	 */
+	private ByteBuffer takeFree() {
+		try {
+			return free.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return ByteBuffer.allocate(BUFFER_SIZE);
+		}
+	}
+	
+	/*
+	 * Body of the writer thread, writing out filled buffers until told the recording is over
+	 */
+	private void write() {
+		while (true) {
+			ByteBuffer next;
+			try {
+				next = filled.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (next == END) {
+				return;
+			}
+			
+			try {
+				while (failure == null && next.hasRemaining()) {
+					channel.write(next);
+				}
+			} catch (IOException e) {
+				failure = e;
+			}
+			next.clear();
+			free.offer(next);
+		}
+	}
+}
@@ -1,9 +1,11 @@
 package rideableObject;
 
-import org.newdawn.slick.Input;
-import org.newdawn.slick.SlickException;
+import java.nio.ByteBuffer;
+
+import input.ActionSource;
 
 import main.App;
+import main.MoverStore;
 import main.Sprite;
 import utilities.Position;
 
@@ -26,13 +28,12 @@ public class RideableObject extends Sprite {
 	 * @param y Y coordinate of the center
 	 * @param moveRight The Direction of movement, true if moving right
 	 * @return A rideable object that represents log
-	 * @throws SlickException
 	 */
 	public static RideableObject createLog(float x, float y, 
-			boolean moveRight) throws SlickException {
+			boolean moveRight) {
 		
 		return new RideableObject(LOG_PATH, x, y, LOG_SPEED, moveRight, 
-				new String[] { Sprite.RIDEABLE });
+				Sprite.RIDEABLE);
 	}
 	
 	/**
@@ -41,13 +42,12 @@ public class RideableObject extends Sprite {
 	 * @param y Y coordinate of the center
 	 * @param moveRight The Direction of movement, true if moving right
 	 * @return A rideable object that represents longlog
-	 * @throws SlickException
 	 */
 	public static RideableObject createLongLog(float x, float y, 
-			boolean moveRight) throws SlickException {
+			boolean moveRight) {
 		
 		return new RideableObject(LONGLOG_PATH, x, y, LONGLOG_SPEED, moveRight, 
-				new String[] { Sprite.RIDEABLE });
+				Sprite.RIDEABLE);
 	}
 	
 	/**
@@ -57,11 +57,10 @@ public class RideableObject extends Sprite {
 	 * @param y Y coordinate of the center
 	 * @param speed Speed of move
 	 * @param moveRight Direction of move, true if going right, false if going left
-	 * @param tags Tag of this rideable object
-	 * @throws SlickException
+	 * @param tags Tags of this rideable object, combined with |
 	 */
 	public RideableObject(String imageSrc, float x, float y, float speed, boolean moveRight, 
-			String[] tags) throws SlickException {	
+			long tags) {	
 		
 		super(imageSrc, x, y, tags);
 		this.speed = speed;
@@ -69,10 +68,42 @@ public class RideableObject extends Sprite {
 	}
 	
 	@Override
-	public void update(Input input, int delta) {
-		float y = getPosition().getY();
-		float width = getBox().getWidth();
-		float left = getBox().getLeft();
+	public void attachTo(MoverStore store) {
+		attach(store, store.add(getX(), getY(), getWidth(), getHeight(), speed, moveRight, false));
+	}
+	
+	@Override
+	public void respawn(float x, float y, boolean moveRight) {
+		super.respawn(x, y, moveRight);
+		setMoveRight(moveRight);
+	}
+	
+	@Override
+	public void writeState(ByteBuffer buffer) {
+		super.writeState(buffer);
+		if (!isStored()) {
+			buffer.put((byte) (moveRight ? 1 : 0));
+		}
+	}
+	
+	@Override
+	public void readState(ByteBuffer buffer) {
+		super.readState(buffer);
+		if (!isStored()) {
+			moveRight = buffer.get() != 0;
+		}
+	}
+	
+	@Override
+	public void update(ActionSource actions, int delta) {
+		//movers attached to a store are moved by the store
+		if (isStored()) {
+			return;
+		}
+		
+		float y = getY();
+		float width = getWidth();
+		float left = getLeft();
 			
 		move(speed, delta, moveRight);
 			
@@ -86,19 +117,18 @@ public class RideableObject extends Sprite {
 	}
 	
 	@Override
-	public Position beRideBy(Sprite sprite, int delta) {
-		float x = sprite.getPosition().getX();
-		float y = sprite.getPosition().getY();
-		Position newPos = new Position(x, y);
+	public boolean beRideBy(Sprite sprite, int delta, Position result) {
+		float x = sprite.getX();
+		result.setY(sprite.getY());
 		
 		if (this.getMoveRight()) {
-			newPos.setX(x + delta * this.getSpeed());
+			result.setX(x + delta * this.getSpeed());
 		}
 		else {
-			newPos.setX(x - delta * this.getSpeed());
+			result.setX(x - delta * this.getSpeed());
 		}
 	
-		return newPos;
+		return true;
 	}
 	
 	/**
@@ -106,12 +136,24 @@ public class RideableObject extends Sprite {
 	 * @return True if the object is going right
 	 */
 	public boolean getMoveRight() {
-		return moveRight;
+		return isStored() ? getStore().getMoveRight(getSlot()) : moveRight;
+	}
+	/**
+	 * Set the move direction of this rideable object
+	 * @param moveRight New direction, true means going right and false means going left
+	 */
+	public void setMoveRight(boolean moveRight) {
+		this.moveRight = moveRight;
+		if (isStored()) {
+			getStore().setMoveRight(getSlot(), moveRight);
+		}
 	}
+	
 	/**
 	 * Get the speed of this rideable object, in pixels per millisec.
 	 * @return A float variable represents speed of this object in pixels per millisecond.
 	 */
+	@Override
 	public float getSpeed() {
 		return speed;
 	}
@@ -1,10 +1,10 @@
 package rideableObject;
 
-import org.newdawn.slick.SlickException;
+import java.nio.ByteBuffer;
 
 import main.Sprite;
 
-import org.newdawn.slick.Input;
+import input.ActionSource;
 
 /**
  * A class represents all the turtle objects in the game.
@@ -21,48 +21,54 @@ public class Turtle extends RideableObject {
 	/* turtle disappear time, in milliseconds */
 	private static final int TURTLE_DISAPPEAR = 2000;
 	
-	private boolean shouldAppear;
-	private int TimeCount;
+	// time since the level started, when the turtle is not attached to a store of movers
+	private long time;
 
 	/**
 	 * Create a new Turtle with xy coordinate and direction
 	 * @param x X coordinate of the center
 	 * @param y Y coordinate of the center
 	 * @param moveRight Direction of move, true if going right, false if going left
-	 * @throws SlickException
 	 */
-	public Turtle(float x, float y, boolean moveRight) throws SlickException {
-		super(TURTLE_PATH, x, y, TURTLE_SPEED, moveRight, new String[] { Sprite.LIMITRIDEABLE });
-		TimeCount = 0;
-		shouldAppear = true;
+	public Turtle(float x, float y, boolean moveRight) {
+		super(TURTLE_PATH, x, y, TURTLE_SPEED, moveRight, Sprite.LIMITRIDEABLE);
+		time = 0;
 	}
 	
 	@Override
-	public void update(Input input, int delta) {
-		super.update(input, delta);
-
-		if (shouldAppear && TimeCount > TURTLE_EXIST) {
-			TimeCount = 0;
-			shouldAppear = false;
-		}
+	public void update(ActionSource actions, int delta) {
+		super.update(actions, delta);
 		
-		if (!shouldAppear && TimeCount > TURTLE_DISAPPEAR) {
-			TimeCount = 0;
-			shouldAppear = true;
+		//turtles in a store of movers share the time of the store
+		if (!isStored()) {
+			time += delta;
+		}
+	}
+	
+	@Override
+	public void writeState(ByteBuffer buffer) {
+		super.writeState(buffer);
+		if (!isStored()) {
+			buffer.putLong(time);
 		}
-		
-		TimeCount += delta;
 	}
 	
 	@Override
-	public void render() throws SlickException {
-		if (shouldAppear) {
-			super.render();
+	public void readState(ByteBuffer buffer) {
+		super.readState(buffer);
+		if (!isStored()) {
+			time = buffer.getLong();
 		}
 	}
 	
+	@Override
+	public boolean isVisible() {
+		return shouldAppear();
+	}
+	
 	@Override
 	public boolean shouldAppear() {
-		return shouldAppear;
+		long now = isStored() ? getStore().getTime() : time;
+		return now % (TURTLE_EXIST + TURTLE_DISAPPEAR) < TURTLE_EXIST;
 	}
 }
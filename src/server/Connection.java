@@ -0,0 +1,32 @@
+package server;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import character.Player;
+import input.NetworkActions;
+
+/**
+ * One client of a game server: its socket, the bytes waiting to be sent to it and the
+ * actions it asked for. The player is only touched by the simulation thread, everything
+ * else only by the network thread.
+ */
+class Connection {
+	
+	final int id;
+	final SocketChannel channel;
+	final NetworkActions actions = new NetworkActions();
+	
+	SelectionKey key;
+	// the message being sent, null once it is sent
+	ByteBuffer out;
+	
+	// the player of this client in the world, set once the simulation took it in
+	Player player;
+	
+	Connection(int id, SocketChannel channel) {
+		this.id = id;
+		this.channel = channel;
+	}
+}
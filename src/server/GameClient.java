@@ -0,0 +1,224 @@
+package server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import main.World;
+
+/**
+ * A blocking client of a game server, such as for tools and tests over loopback.
+ * It sends the actions of its player and reads the states of the world one at a time,
+ * the players of the last state read can be looked up by index.
+ */
+public class GameClient implements AutoCloseable {
+	
+	/* first size of the buffer a message is read into, it grows when too small */
+	private static final int INIT_MESSAGE_SIZE = 4096;
+	
+	private SocketChannel channel;
+	private ByteBuffer length = ByteBuffer.allocate(Protocol.LENGTH_SIZE);
+	private ByteBuffer message = ByteBuffer.allocate(INIT_MESSAGE_SIZE);
+	private ByteBuffer actions = ByteBuffer.allocate(1);
+	
+	private int id;
+	private int tickMillis;
+	
+	// the last state read
+	private long tick = -1;
+	private int numPlayers;
+	private int worldOffset;
+	
+	/**
+	 * Connect to a server, and wait for it to welcome the new player
+	 * @param address Address of the server
+	 * @throws IOException If the server can't be reached, or doesn't welcome the player
+	 */
+	public GameClient(InetSocketAddress address) throws IOException {
+		channel = SocketChannel.open(address);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		
+		if (readMessage() != Protocol.WELCOME) {
+			channel.close();
+			throw new IOException("The server didn't welcome the player");
+		}
+		id = message.getInt();
+		tickMillis = message.getInt();
+	}
+	
+	/**
+	 * Ask for actions of the player, reported by the server in its next tick
+	 * @param actions A set of Action.mask() bits
+	 * @throws IOException If the connection is lost
+	 */
+	public void send(int actions) throws IOException {
+		this.actions.clear();
+		this.actions.put((byte) actions);
+		this.actions.flip();
+		while (this.actions.hasRemaining()) {
+			channel.write(this.actions);
+		}
+	}
+	
+	/**
+	 * Wait for the next state of the world
+	 * @return The tick of the state
+	 * @throws IOException If the connection is lost
+	 */
+	public long readState() throws IOException {
+		while (readMessage() != Protocol.STATE) {
+			// nothing else is sent once the player is welcomed
+		}
+		tick = message.getLong();
+		numPlayers = message.getInt();
+		worldOffset = message.position() + numPlayers * Protocol.PLAYER_SIZE;
+		return tick;
+	}
+	
+	/**
+	 * Put a world into the state of the world last read, the server's world has no player
+	 * of its own so the world's own player is left where it is
+	 * @param world A world playing the same levels as the server's
+	 */
+	public void restore(World world) {
+		ByteBuffer view = message.duplicate();
+		view.position(worldOffset);
+		world.restore(view);
+	}
+	
+	/**
+	 * Find a player in the last state read
+	 * @param playerId Id of the player
+	 * @return Index of the player, -1 if it is not in the state
+	 */
+	public int indexOf(int playerId) {
+		for (int i = 0; i < numPlayers; i++) {
+			if (getPlayerId(i) == playerId) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Get the id of a player in the last state read
+	 * @param index Index of the player
+	 * @return The id
+	 */
+	public int getPlayerId(int index) {
+		return message.getInt(playerOffset(index));
+	}
+	
+	/**
+	 * Get the x coordinate of a player in the last state read
+	 * @param index Index of the player
+	 * @return The x coordinate of its center
+	 */
+	public float getX(int index) {
+		return message.getFloat(playerOffset(index) + 4);
+	}
+	
+	/**
+	 * Get the y coordinate of a player in the last state read
+	 * @param index Index of the player
+	 * @return The y coordinate of its center
+	 */
+	public float getY(int index) {
+		return message.getFloat(playerOffset(index) + 8);
+	}
+	
+	/**
+	 * Get the number of lives of a player in the last state read
+	 * @param index Index of the player
+	 * @return Number of lives left
+	 */
+	public int getLives(int index) {
+		return message.get(playerOffset(index) + 12);
+	}
+	
+	/**
+	 * Check whether a player in the last state read lost every live
+	 * @param index Index of the player
+	 * @return True if its game is over
+	 */
+	public boolean isGameOver(int index) {
+		return message.get(playerOffset(index) + 13) != 0;
+	}
+	
+	/**
+	 * Get the number of players in the last state read
+	 * @return Number of players
+	 */
+	public int getNumPlayers() {
+		return numPlayers;
+	}
+	
+	/**
+	 * Get the tick of the last state read
+	 * @return The tick, -1 before any state is read
+	 */
+	public long getTick() {
+		return tick;
+	}
+	
+	/**
+	 * Get the id of the player of this client
+	 * @return The id
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	/**
+	 * Get the time the server steps by every tick
+	 * @return Tick length, in milliseconds
+	 */
+	public int getTickMillis() {
+		return tickMillis;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+	
+	/*
+	 * Read one whole message into the message buffer, positioned after its type,
+	 * return its type
+	 */
+	private byte readMessage() throws IOException {
+		length.clear();
+		readFully(length);
+		int size = length.getInt(0);
+		if (size <= 0) {
+			throw new IOException("Invalid message length " + size);
+		}
+		
+		if (message.capacity() < size) {
+			message = ByteBuffer.allocate(Math.max(size, message.capacity() * 2));
+		}
+		message.clear();
+		message.limit(size);
+		readFully(message);
+		message.flip();
+		return message.get();
+	}
+	
+	private void readFully(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new EOFException("The server closed the connection");
+			}
+		}
+	}
+	
+	private int playerOffset(int index) {
+		if (index < 0 || index >= numPlayers) {
+			throw new IndexOutOfBoundsException("No player " + index + " in the state");
+		}
+		return Protocol.STATE_HEADER_SIZE - Protocol.LENGTH_SIZE + index * Protocol.PLAYER_SIZE;
+	}
+}
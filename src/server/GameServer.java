@@ -0,0 +1,405 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import character.Player;
+import input.ActionSource;
+import level.LevelManager;
+import main.World;
+
+/**
+ * A headless server hosting many players in one shared world, which alone decides what
+ * happens in it. Clients connect over non-blocking sockets and send the actions of their
+ * player, and get the state of every player and of the world after every tick.
+ *
+ * A single network thread serves every connection through one selector. The world is
+ * stepped at a fixed tick on a thread of its own, and the two threads only meet through
+ * queues of joined and left clients, the actions of each client, and the latest state.
+ * A client still receiving an older state skips the states it is too slow for.
+ *
+ * The world has no player of its own, only the seated ones. Once the last level is
+ * finished or every seated player lost every live, the last state is sent and the game
+ * starts over from the first level.
+ */
+public class GameServer {
+	
+	/** default port clients connect to */
+	public static final int DEFAULT_PORT = 7345;
+	/** default time stepped by every tick, in milliseconds, as at 60 frames per second */
+	public static final int DEFAULT_TICK = 16;
+	
+	/* size of the buffer reading from clients, every byte is a set of actions */
+	private static final int READ_SIZE = 256;
+	/* first size of the buffer a state is written into, it grows when too small */
+	private static final int INIT_STATE_SIZE = 4096;
+	
+	private World world;
+	private int tickMillis;
+	
+	private Selector selector;
+	private ServerSocketChannel serverChannel;
+	private Thread network;
+	private ScheduledExecutorService simulation;
+	private volatile boolean running;
+	
+	// clients connected or gone, from the network thread to the simulation thread
+	private Queue<Connection> joined = new ConcurrentLinkedQueue<>();
+	private Queue<Connection> left = new ConcurrentLinkedQueue<>();
+	// the state of the last tick, from the simulation thread to the network thread
+	private volatile ByteBuffer latest;
+	private volatile long tick;
+	private volatile int numConnections;
+	
+	// owned by the network thread
+	private ArrayList<Connection> connections = new ArrayList<>();
+	private ByteBuffer readBuffer = ByteBuffer.allocate(READ_SIZE);
+	private ByteBuffer sent;
+	private int nextId = 1;
+	private volatile long skipped;
+	
+	// owned by the simulation thread
+	private ArrayList<Connection> seats = new ArrayList<>();
+	private ByteBuffer state = ByteBuffer.allocate(INIT_STATE_SIZE);
+	
+	/**
+	 * Create a server of a world playing a list of levels
+	 * @param levels The levels of the world
+	 * @param seed Seed of every random choice in the world
+	 * @param tickMillis Time stepped by every tick, in milliseconds
+	 */
+	public GameServer(LevelManager levels, long seed, int tickMillis) {
+		if (tickMillis <= 0) {
+			throw new IllegalArgumentException("Tick length must be positive");
+		}
+		this.world = new World(levels, seed, true);
+		this.tickMillis = tickMillis;
+	}
+	
+	/**
+	 * Start listening for clients and stepping the world
+	 * @param address Address to listen on, port 0 for any free port
+	 * @throws IOException If the address can't be listened on
+	 */
+	public void start(InetSocketAddress address) throws IOException {
+		if (running) {
+			throw new IllegalStateException("The server is already running");
+		}
+		selector = Selector.open();
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.configureBlocking(false);
+		serverChannel.bind(address);
+		serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		running = true;
+		
+		network = new Thread(this::serve, "server-network");
+		network.setDaemon(true);
+		network.start();
+		
+		simulation = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "server-simulation");
+			thread.setDaemon(true);
+			return thread;
+		});
+		simulation.scheduleAtFixedRate(this::step, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Stop stepping the world, and disconnect every client
+	 */
+	public void close() {
+		if (!running) {
+			return;
+		}
+		simulation.shutdown();
+		try {
+			simulation.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			//the network thread stops and disconnects every client even if waiting was cut short
+			running = false;
+			selector.wakeup();
+		}
+		try {
+			network.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Get the port clients connect to
+	 * @return The port listened on, -1 if the server isn't started
+	 */
+	public int getPort() {
+		return serverChannel != null ? serverChannel.socket().getLocalPort() : -1;
+	}
+	
+	/**
+	 * Get the number of ticks stepped so far
+	 * @return Number of ticks
+	 */
+	public long getTick() {
+		return tick;
+	}
+	
+	/**
+	 * Get the number of clients connected
+	 * @return Number of connections
+	 */
+	public int getConnections() {
+		return numConnections;
+	}
+	
+	/**
+	 * Get the number of states not sent to a client because it was still receiving the
+	 * state before, over every client
+	 * @return Number of states skipped
+	 */
+	public long getSkippedStates() {
+		return skipped;
+	}
+	
+	/**
+	 * Run a server until the process is stopped
+	 * @param args Optionally the port to listen on and the tick length in milliseconds
+	 * @throws IOException If the port can't be listened on
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int tickMillis = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TICK;
+		GameServer server = new GameServer(LevelManager.fromManifest(World.MANIFEST, true),
+				System.nanoTime(), tickMillis);
+		server.start(new InetSocketAddress(port));
+		System.out.println("Listening on port " + server.getPort());
+	}
+	
+	/*
+	 * Step the world for a tick and publish its state, on the simulation thread
+	 */
+	private void step() {
+		try {
+			Connection connection;
+			while ((connection = joined.poll()) != null) {
+				connection.player = world.addPlayer(connection.actions);
+				seats.add(connection);
+			}
+			while ((connection = left.poll()) != null) {
+				world.removePlayer(connection.player);
+				seats.remove(connection);
+			}
+			
+			for (int i = 0; i < seats.size(); i++) {
+				seats.get(i).actions.nextTick();
+			}
+			//only the seated players are controlled, each by actions of its own
+			world.update(ActionSource.NONE, tickMillis);
+			tick++;
+			
+			latest = encodeState();
+			selector.wakeup();
+			if (world.isGameOver()) {
+				world.reset();
+			}
+		} catch (RuntimeException e) {
+			//an exception would cancel every later tick, so report it and keep going
+			e.printStackTrace();
+		}
+	}
+	
+	/*
+	 * Write the state of every player and of the world into a message of its own, which
+	 * is never changed once published
+	 */
+	private ByteBuffer encodeState() {
+		while (true) {
+			state.clear();
+			try {
+				state.putInt(0).put(Protocol.STATE).putLong(tick).putInt(seats.size());
+				for (int i = 0; i < seats.size(); i++) {
+					Connection seat = seats.get(i);
+					Player player = seat.player;
+					state.putInt(seat.id).putFloat(player.getX()).putFloat(player.getY())
+							.put((byte) player.getLives().size())
+							.put((byte) (player.isGameOver() ? 1 : 0));
+				}
+				world.save(state);
+				state.putInt(0, state.position() - Protocol.LENGTH_SIZE);
+				state.flip();
+				break;
+			} catch (BufferOverflowException e) {
+				state = ByteBuffer.allocate(state.capacity() * 2);
+			}
+		}
+		
+		ByteBuffer message = ByteBuffer.allocate(state.remaining());
+		message.put(state);
+		message.flip();
+		return message.asReadOnlyBuffer();
+	}
+	
+	/*
+	 * Serve every connection until the server is closed, on the network thread
+	 */
+	private void serve() {
+		try {
+			while (running) {
+				selector.select();
+				broadcast();
+				
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+						continue;
+					}
+					Connection connection = (Connection) key.attachment();
+					if (key.isReadable()) {
+						read(connection);
+					}
+					if (key.isValid() && key.isWritable()) {
+						flush(connection);
+					}
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			for (int i = connections.size() - 1; i >= 0; i--) {
+				disconnect(connections.get(i));
+			}
+			try {
+				serverChannel.close();
+				selector.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/*
+	 * Take in every client waiting to connect, and welcome it
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ((channel = serverChannel.accept()) != null) {
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			
+			Connection connection = new Connection(nextId++, channel);
+			connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+			connections.add(connection);
+			numConnections = connections.size();
+			joined.add(connection);
+			
+			ByteBuffer welcome = ByteBuffer.allocate(Protocol.WELCOME_SIZE);
+			welcome.putInt(Protocol.WELCOME_SIZE - Protocol.LENGTH_SIZE).put(Protocol.WELCOME)
+					.putInt(connection.id).putInt(tickMillis);
+			welcome.flip();
+			connection.out = welcome;
+			flush(connection);
+		}
+	}
+	
+	/*
+	 * Read the actions a client sent, and disconnect it if it's gone
+	 */
+	private void read(Connection connection) {
+		readBuffer.clear();
+		int read;
+		try {
+			read = connection.channel.read(readBuffer);
+		} catch (IOException e) {
+			read = -1;
+		}
+		if (read < 0) {
+			disconnect(connection);
+			return;
+		}
+		
+		int actions = 0;
+		for (int i = 0; i < read; i++) {
+			actions |= readBuffer.get(i);
+		}
+		connection.actions.ask(actions);
+	}
+	
+	/*
+	 * Send the latest state to every client done with the message before it
+	 */
+	private void broadcast() {
+		ByteBuffer message = latest;
+		if (message == null || message == sent) {
+			return;
+		}
+		sent = message;
+		
+		for (int i = connections.size() - 1; i >= 0; i--) {
+			Connection connection = connections.get(i);
+			if (connection.out != null) {
+				skipped++;
+				continue;
+			}
+			connection.out = message.duplicate();
+			flush(connection);
+		}
+	}
+	
+	/*
+	 * Write as much of the message being sent as the socket takes, and wait until it can
+	 * take more if it didn't take all of it
+	 */
+	private void flush(Connection connection) {
+		try {
+			connection.channel.write(connection.out);
+		} catch (IOException e) {
+			disconnect(connection);
+			return;
+		}
+		
+		if (connection.out.hasRemaining()) {
+			connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		}
+		else {
+			connection.out = null;
+			connection.key.interestOps(SelectionKey.OP_READ);
+		}
+	}
+	
+	/*
+	 * Close the connection of a client, and have the simulation take its player out
+	 */
+	private void disconnect(Connection connection) {
+		if (!connections.remove(connection)) {
+			return;
+		}
+		numConnections = connections.size();
+		left.add(connection);
+		connection.key.cancel();
+		try {
+			connection.channel.close();
+		} catch (IOException e) {
+			// it's gone either way
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package server;
+
+/**
+ * The messages between a game server and its clients.
+ *
+ * A client sends single bytes, each a set of Action.mask() bits asked for, so a byte is
+ * one press of the keys a player controls a local game with.
+ *
+ * The server sends messages starting with their length (an int, not counting itself) and
+ * their type (a byte). A welcome message is sent once a client connects, with the id of
+ * its player and the length of a tick in milliseconds. A state message is sent every tick,
+ * with the number of the tick, the number of players, then the id, x and y coordinates,
+ * number of lives and a game over flag of each, then the state of the world as written
+ * by World.save.
+ */
+public class Protocol {
+	
+	/** type of the message sent once a client connects */
+	public static final byte WELCOME = 1;
+	/** type of the message sent every tick */
+	public static final byte STATE = 2;
+	
+	/** size of the length in front of each message, in bytes */
+	public static final int LENGTH_SIZE = 4;
+	/** size of a welcome message, its length included */
+	public static final int WELCOME_SIZE = LENGTH_SIZE + 9;
+	/** size of the header of a state message, its length included */
+	public static final int STATE_HEADER_SIZE = LENGTH_SIZE + 13;
+	/** size of each player of a state message */
+	public static final int PLAYER_SIZE = 14;
+	
+	private Protocol() {
+	}
+}
@@ -0,0 +1,163 @@
+package simulation;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+import input.Action;
+import input.ScriptedActions;
+import level.LevelManager;
+import main.App;
+import main.World;
+
+/**
+ * Runs many independent worlds headless at once, spread over a fork-join pool.
+ * Every world has its own levels, random source and input script, and writes its
+ * outcome into its own slot of the result, so worlds share no mutable state.
+ */
+public class BatchSimulator {
+	
+	/* most worlds simulated by one task before it stops splitting */
+	private static final int WORLDS_PER_TASK = 4;
+	
+	private ForkJoinPool pool;
+	private List<String> levelFiles;
+	private int maxTicks;
+	
+	/**
+	 * Create a batch simulator
+	 * @param parallelism Number of threads to run worlds on
+	 * @param levelFiles Pathways to the level files every world plays, in order
+	 * @param maxTicks Most ticks a world runs before it is stopped
+	 */
+	public BatchSimulator(int parallelism, List<String> levelFiles, int maxTicks) {
+		this.pool = new ForkJoinPool(parallelism);
+		this.levelFiles = levelFiles;
+		this.maxTicks = maxTicks;
+	}
+	
+	/**
+	 * Simulate a batch of worlds until each one ends or runs out of ticks
+	 * @param seeds The seed of every world, one world is run per seed
+	 * @param scripts Gives the input script of the world at an index, called on the
+	 * thread running that world
+	 * @return The outcome of every world, in the order of the seeds
+	 */
+	public WorldOutcome[] run(long[] seeds, IntFunction<ScriptedActions> scripts) {
+		WorldOutcome[] outcomes = new WorldOutcome[seeds.length];
+		pool.invoke(new Batch(seeds, scripts, outcomes, 0, seeds.length));
+		return outcomes;
+	}
+	
+	/**
+	 * Stop the threads of this simulator
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+	
+	/*
+	 * Step one world to its end, on the calling thread
+	 */
+	private WorldOutcome simulate(long seed, ScriptedActions script) {
+		//worlds already run side by side, so each reads its levels on its own thread
+		World world = new World(new LevelManager(levelFiles, true, false), seed);
+		
+		int ticks = 0;
+		while (ticks < maxTicks && !world.isGameOver()) {
+			script.nextTick();
+			world.update(script, App.TICK_MILLIS);
+			ticks++;
+		}
+		
+		return new WorldOutcome(seed, world.getArrivals(), world.getPlayer().getDeaths(), 
+				ticks, world.isGameOver());
+	}
+	
+	/*
+	 * A range of worlds, split in halves until it is small enough to simulate
+	 */
+	private class Batch extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final long[] seeds;
+		private final IntFunction<ScriptedActions> scripts;
+		private final WorldOutcome[] outcomes;
+		private final int from;
+		private final int to;
+		
+		private Batch(long[] seeds, IntFunction<ScriptedActions> scripts, WorldOutcome[] outcomes, 
+				int from, int to) {
+			this.seeds = seeds;
+			this.scripts = scripts;
+			this.outcomes = outcomes;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= WORLDS_PER_TASK) {
+				for (int i = from; i < to; i++) {
+					outcomes[i] = simulate(seeds[i], scripts.apply(i));
+				}
+				return;
+			}
+			
+			int middle = (from + to) >>> 1;
+			invokeAll(new Batch(seeds, scripts, outcomes, from, middle), 
+					new Batch(seeds, scripts, outcomes, middle, to));
+		}
+	}
+	
+	/**
+	 * Simulate a batch of worlds with a simple hopping script, on one thread and then on
+	 * every core, and print the outcome and how well it scales.
+	 * @param args Number of worlds and most ticks per world, both optional
+	 */
+	public static void main(String[] args) {
+		int worlds = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int maxTicks = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+		int cores = Runtime.getRuntime().availableProcessors();
+		
+		long[] seeds = new long[worlds];
+		for (int i = 0; i < worlds; i++) {
+			seeds[i] = i;
+		}
+		
+		//hop up every so often, each world with its own rhythm
+		IntFunction<ScriptedActions> scripts = i -> {
+			int[] script = new int[20 + i % 40];
+			script[0] = Action.UP.mask();
+			return new ScriptedActions(script, true);
+		};
+		
+		List<String> levelFiles = LevelManager.fromManifest(World.MANIFEST, true).getLevelFiles();
+		
+		double single = 0;
+		for (int threads : (cores > 1 ? new int[] {1, cores} : new int[] {1})) {
+			BatchSimulator simulator = new BatchSimulator(threads, levelFiles, maxTicks);
+			long start = System.nanoTime();
+			WorldOutcome[] outcomes = simulator.run(seeds, scripts);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			simulator.shutdown();
+			
+			long ticks = 0;
+			long arrivals = 0;
+			long deaths = 0;
+			for (WorldOutcome outcome : outcomes) {
+				ticks += outcome.getTicks();
+				arrivals += outcome.getArrivals();
+				deaths += outcome.getDeaths();
+			}
+			if (threads == 1) {
+				single = seconds;
+			}
+			System.out.printf("%d threads: %d worlds in %.2f s, %.0f ticks/s, speedup %.2f, " 
+					+ "%d arrivals, %d deaths%n", threads, worlds, seconds, ticks / seconds, 
+					single / seconds, arrivals, deaths);
+		}
+	}
+}
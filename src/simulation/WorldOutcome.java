@@ -0,0 +1,65 @@
+package simulation;
+
+/**
+ * What happened in one world of a batch.
+ */
+public class WorldOutcome {
+	
+	private final long seed;
+	private final int arrivals;
+	private final int deaths;
+	private final int ticks;
+	private final boolean gameOver;
+	
+	/**
+	 * Create the outcome of a world
+	 * @param seed Seed the world was created with
+	 * @param arrivals Number of players arrived at the destinations
+	 * @param deaths Number of times the player died
+	 * @param ticks Number of ticks the world ran before ending or running out of time
+	 * @param gameOver True if the game ended before running out of time
+	 */
+	public WorldOutcome(long seed, int arrivals, int deaths, int ticks, boolean gameOver) {
+		this.seed = seed;
+		this.arrivals = arrivals;
+		this.deaths = deaths;
+		this.ticks = ticks;
+		this.gameOver = gameOver;
+	}
+	
+	/**
+	 * Get the seed the world was created with
+	 * @return The seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	/**
+	 * Get the number of players arrived at the destinations
+	 * @return Number of arrivals
+	 */
+	public int getArrivals() {
+		return arrivals;
+	}
+	/**
+	 * Get the number of times the player died
+	 * @return Number of deaths
+	 */
+	public int getDeaths() {
+		return deaths;
+	}
+	/**
+	 * Get the number of ticks survived
+	 * @return Number of ticks the world ran
+	 */
+	public int getTicks() {
+		return ticks;
+	}
+	/**
+	 * Check whether the game ended before running out of time
+	 * @return True if the game is over
+	 */
+	public boolean isGameOver() {
+		return gameOver;
+	}
+}
@@ -0,0 +1,48 @@
+package utilities;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes allocated by the current thread, through the thread bean of HotSpot.
+ * On a JVM that can't count them, every count is 0.
+ */
+public class Allocations {
+	
+	private static final com.sun.management.ThreadMXBean THREADS = threads();
+	
+	private Allocations() {
+	}
+	
+	/**
+	 * Check whether this JVM can count allocated bytes
+	 * @return True if it can
+	 */
+	public static boolean isSupported() {
+		return THREADS != null;
+	}
+	
+	/**
+	 * Get the bytes allocated so far by the current thread
+	 * @return Allocated bytes, or 0 if the JVM can't tell
+	 */
+	public static long allocatedBytes() {
+		if (THREADS == null) {
+			return 0;
+		}
+		return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	/*
+	 * The thread bean of HotSpot, which can count allocated bytes
+	 */
+	private static com.sun.management.ThreadMXBean threads() {
+		try {
+			com.sun.management.ThreadMXBean bean =
+					(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+			bean.setThreadAllocatedMemoryEnabled(true);
+			return bean;
+		} catch (ClassCastException | UnsupportedOperationException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package utilities;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sizes of the image assets, read from the header of each png file without decoding it,
+ * so the game can run without a display.
+ */
+public class AssetMetadata {
+	
+	/* signature every png file starts with */
+	private static final long PNG_SIGNATURE = 0x89504E470D0A1A0AL;
+	/* type of the header chunk holding the size of the image */
+	private static final int IHDR = 0x49484452;
+	
+	private static final Map<String, int[]> sizes = new ConcurrentHashMap<>();
+	
+	private AssetMetadata() {
+	}
+	
+	/**
+	 * Get the width of an image asset
+	 * @param path The path to the image
+	 * @return Width of the image, in pixels
+	 */
+	public static int getWidth(String path) {
+		return sizeOf(path)[0];
+	}
+	
+	/**
+	 * Get the height of an image asset
+	 * @param path The path to the image
+	 * @return Height of the image, in pixels
+	 */
+	public static int getHeight(String path) {
+		return sizeOf(path)[1];
+	}
+	
+	/*
+	 * Width and height of an image, read once and then cached
+	 */
+	private static int[] sizeOf(String path) {
+		return sizes.computeIfAbsent(path, AssetMetadata::readSize);
+	}
+	
+	/*
+	 * Read the size from the header chunk, which always comes first in a png file
+	 */
+	private static int[] readSize(String path) {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(path))) {
+			if (in.readLong() != PNG_SIGNATURE) {
+				throw new IOException(path + " is not a png image");
+			}
+			in.readInt();
+			if (in.readInt() != IHDR) {
+				throw new IOException(path + " has no image header");
+			}
+			return new int[] { in.readInt(), in.readInt() };
+		} catch (IOException e) {
+			e.printStackTrace();
+			return new int[] { 0, 0 };
+		}
+	}
+}
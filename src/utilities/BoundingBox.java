@@ -5,8 +5,6 @@
  */
 package utilities;
 
-import org.newdawn.slick.Image;
-
 /**
  * A class represents surrounding edges of a item
  */
@@ -31,18 +29,6 @@ public class BoundingBox {
 		setX(x);
 		setY(y);
 	}
-	/**
-	 * Create a BoundingBox instance with xy coordinate, and the image of a object
-	 * @param img A instance of Image class represents the image of a object
-	 * @param x X coordinate
-	 * @param y Y coordinate
-	 */
-	public BoundingBox(Image img, float x, float y) {
-		setWidth(img.getWidth());
-		setHeight(img.getHeight());
-		setX(x);
-		setY(y);
-	}
 	/**
 	 * Create a BoundingBox instance with another BoundingBox
 	 * @param bb Another BoundingBox variable
@@ -138,6 +124,21 @@ public class BoundingBox {
 			  || other.getBottom() < top);
 	}
 	
+	/**
+	 * Determine whether a box is intersect with the edges of another box, without creating one
+	 * @param otherLeft Left edge of the other box
+	 * @param otherTop Top edge of the other box
+	 * @param otherRight Right edge of the other box
+	 * @param otherBottom Bottom edge of the other box
+	 * @return True if this box is intersect with the other box
+	 */
+	public boolean intersects(float otherLeft, float otherTop, float otherRight, float otherBottom) {
+		return !(otherLeft > getRight()
+			  || otherRight < left
+			  || otherTop > getBottom()
+			  || otherBottom < top);
+	}
+	
 	/**
 	 * Determine whether a box is placed in front of other box and there's no space between them
 	 * @param other Another BoundingBox
@@ -0,0 +1,54 @@
+package utilities;
+
+/**
+ * A small pseudo random generator (SplitMix64) owned by one world, so every world draws
+ * its own reproducible sequence from a seed and no state is shared between worlds.
+ * Its whole state is a single long, which can be saved and restored.
+ */
+public class Rng {
+	
+	private long state;
+	
+	/**
+	 * Create a generator from a seed
+	 * @param seed The seed, the same seed always gives the same sequence
+	 */
+	public Rng(long seed) {
+		this.state = seed;
+	}
+	
+	/**
+	 * Get the next random long
+	 * @return A uniformly distributed long
+	 */
+	public long nextLong() {
+		long z = (state += 0x9E3779B97F4A7C15L);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * Get the next random double, as Math.random() would
+	 * @return A uniformly distributed double from 0 (inclusive) to 1 (exclusive)
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+	
+	/**
+	 * Get the whole state of the generator
+	 * @return The state, which gives back the same sequence when set again
+	 */
+	public long getState() {
+		return state;
+	}
+	
+	/**
+	 * Set the whole state of the generator
+	 * @param state A state given by getState()
+	 */
+	public void setState(long state) {
+		this.state = state;
+	}
+}
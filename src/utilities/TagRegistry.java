@@ -0,0 +1,48 @@
+package utilities;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A registry giving every tag name its own bit, so a set of tags fits in a single long
+ * and checking for one or several tags is a single mask operation.
+ */
+public class TagRegistry {
+	
+	/* a long holds one bit for each tag */
+	private static final int MAX_TAGS = Long.SIZE;
+	
+	private static final Map<String, Long> masks = new HashMap<>();
+	
+	private TagRegistry() {
+	}
+	
+	/**
+	 * Get the mask of a tag, registering the tag the first time its name is seen
+	 * @param name Name of the tag
+	 * @return A mask with the single bit of this tag set
+	 */
+	public static synchronized long intern(String name) {
+		Long mask = masks.get(name);
+		
+		if (mask == null) {
+			if (masks.size() == MAX_TAGS) {
+				throw new IllegalStateException("No more than " + MAX_TAGS + " tags can be registered");
+			}
+			mask = 1L << masks.size();
+			masks.put(name, mask);
+		}
+		
+		return mask;
+	}
+	
+	/**
+	 * Get the mask of a tag without registering it
+	 * @param name Name of the tag
+	 * @return A mask with the single bit of this tag set, or 0 if the tag is unknown
+	 */
+	public static synchronized long lookup(String name) {
+		Long mask = masks.get(name);
+		return mask == null ? 0 : mask;
+	}
+}
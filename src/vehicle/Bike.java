@@ -1,7 +1,6 @@
 package vehicle;
 
-import org.newdawn.slick.Input;
-import org.newdawn.slick.SlickException;
+import input.ActionSource;
 
 import main.App;
 import main.Sprite;
@@ -21,21 +20,30 @@ public class Bike extends Vehicle {
 	 * @param x X coordinate of the center
 	 * @param y Y coordinate of the center
 	 * @param moveRight The direction of move, true if going right, false if going left
-	 * @throws SlickException
 	 */
-	public Bike(float x, float y, boolean moveRight) throws SlickException {		
-		super(BIKE_PATH, x, y, BIKE_SPEED, moveRight, new String[] { Sprite.HAZARD });
+	public Bike(float x, float y, boolean moveRight) {		
+		super(BIKE_PATH, x, y, BIKE_SPEED, moveRight, Sprite.HAZARD);
 	}
 	
 	@Override
-	public void update(Input input, int delta) {
-		super.update(input, delta);
+	protected boolean bounces() {
+		return true;
+	}
+	
+	@Override
+	public void update(ActionSource actions, int delta) {
+		super.update(actions, delta);
+		
+		//the store turns bikes back by itself
+		if (isStored()) {
+			return;
+		}
 			
 		//once they reach the edge of screen, they change their direction to move backwards
-		if (this.getPosition().getX() <= App.TILE_SIZE / 2) {
+		if (this.getX() <= App.TILE_SIZE / 2) {
 			setMoveRight(true);
 		}
-		else if (this.getPosition().getX() >= App.SCREEN_WIDTH - App.TILE_SIZE / 2) {
+		else if (this.getX() >= App.SCREEN_WIDTH - App.TILE_SIZE / 2) {
 			setMoveRight(false);
 		}
 	}
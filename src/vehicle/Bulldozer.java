@@ -1,7 +1,5 @@
 package vehicle;
 
-import org.newdawn.slick.SlickException;
-
 import main.Sprite;
 
 /**
@@ -19,16 +17,15 @@ public class Bulldozer extends Vehicle {
 	 * @param x X coordinate of the center
 	 * @param y Y coordinate of the center
 	 * @param moveRight The direction of move, true if going right, false if going left
-	 * @throws SlickException
 	 */
-	public Bulldozer(float x, float y, boolean moveRight) throws SlickException {		
-		super(BULLDOZER_PATH, x, y, BULLDOZER_SPEED , moveRight, new String[] { Sprite.SOLID, Sprite.PUSH });
+	public Bulldozer(float x, float y, boolean moveRight) {		
+		super(BULLDOZER_PATH, x, y, BULLDOZER_SPEED , moveRight, Sprite.SOLID | Sprite.PUSH);
 	}
 	
 	@Override
 	public void push(int delta, Sprite sprite) {
-		float x = sprite.getPosition().getX();
-		float y = sprite.getPosition().getY();
+		float x = sprite.getX();
+		float y = sprite.getY();
 		
 		if (getMoveRight()) {
 			sprite.setPosition(x + getSpeed() * delta, y);
@@ -1,9 +1,11 @@
 package vehicle;
 
-import org.newdawn.slick.SlickException;
-import org.newdawn.slick.Input;
+import java.nio.ByteBuffer;
+
+import input.ActionSource;
 
 import main.App;
+import main.MoverStore;
 import main.Sprite;
 
 /**
@@ -26,10 +28,9 @@ public class Vehicle extends Sprite {
 	 * @param y Y coordinate of the center
 	 * @param moveRight The direction of move, true if going right, false if going left
 	 * @return A vehicle object that represents bus
-	 * @throws SlickException
 	 */
-	public static Vehicle createBus(float x, float y, boolean moveRight) throws SlickException {
-		return new Vehicle(BUS_PATH, x, y, BUS_SPEED, moveRight, new String[] { Sprite.HAZARD });
+	public static Vehicle createBus(float x, float y, boolean moveRight) {
+		return new Vehicle(BUS_PATH, x, y, BUS_SPEED, moveRight, Sprite.HAZARD);
 	}
 	
 	/**
@@ -38,10 +39,9 @@ public class Vehicle extends Sprite {
 	 * @param y Y coordinate of the center
 	 * @param moveRight The direction of move, true if going right, false if going left
 	 * @return A vehicle object that represents racecar
-	 * @throws SlickException
 	 */
-	public static Vehicle createRacecar(float x, float y, boolean moveRight) throws SlickException {
-		return new Vehicle(RACECAR_PATH, x, y, RACECAR_SPEED, moveRight, new String[] { Sprite.HAZARD });
+	public static Vehicle createRacecar(float x, float y, boolean moveRight) {
+		return new Vehicle(RACECAR_PATH, x, y, RACECAR_SPEED, moveRight, Sprite.HAZARD);
 	}
 	
 	/**
@@ -51,20 +51,59 @@ public class Vehicle extends Sprite {
 	 * @param y Y coordinate of the center
 	 * @param speed Speed of move
 	 * @param moveRight Direction of move, true if going right, false if going left
-	 * @param tags Tags of a kind a sprite
-	 * @throws SlickException
+	 * @param tags Tags of a kind a sprite, combined with |
 	 */
-	public Vehicle(String imageSrc, float x, float y, float speed, boolean moveRight, String[] tags) throws SlickException {		
+	public Vehicle(String imageSrc, float x, float y, float speed, boolean moveRight, long tags) {		
 		super(imageSrc, x, y, tags);
 		this.speed = speed;
 		this.moveRight = moveRight;
 	}
 	
 	@Override
-	public void update(Input input, int delta) {
-		float y = getPosition().getY();
-		float width = getBox().getWidth();
-		float left = getBox().getLeft();
+	public void attachTo(MoverStore store) {
+		attach(store, store.add(getX(), getY(), getWidth(), getHeight(), speed, moveRight, bounces()));
+	}
+	
+	/**
+	 * Indicate whether this vehicle turns back at the edges of screen instead of wrapping around
+	 * @return True if it turns back
+	 */
+	protected boolean bounces() {
+		return false;
+	}
+	
+	@Override
+	public void respawn(float x, float y, boolean moveRight) {
+		super.respawn(x, y, moveRight);
+		setMoveRight(moveRight);
+	}
+	
+	@Override
+	public void writeState(ByteBuffer buffer) {
+		super.writeState(buffer);
+		if (!isStored()) {
+			buffer.put((byte) (moveRight ? 1 : 0));
+		}
+	}
+	
+	@Override
+	public void readState(ByteBuffer buffer) {
+		super.readState(buffer);
+		if (!isStored()) {
+			moveRight = buffer.get() != 0;
+		}
+	}
+	
+	@Override
+	public void update(ActionSource actions, int delta) {
+		//movers attached to a store are moved by the store
+		if (isStored()) {
+			return;
+		}
+		
+		float y = getY();
+		float width = getWidth();
+		float left = getLeft();
 			
 		move(speed, delta, moveRight);
 			
@@ -82,13 +121,14 @@ public class Vehicle extends Sprite {
 	 * @return True if the object is going right
 	 */
 	public boolean getMoveRight() {
-		return moveRight;
+		return isStored() ? getStore().getMoveRight(getSlot()) : moveRight;
 	}
 	
 	/**
 	 * Get the speed of this vehicle, in pixels per millisec.
 	 * @return A float variable represents speed of this object in pixels per millisecond.
 	 */
+	@Override
 	public float getSpeed() {
 		return speed;
 	}
@@ -99,5 +139,8 @@ public class Vehicle extends Sprite {
 	 */
 	public void setMoveRight(boolean moveRight) {
 		this.moveRight = moveRight;
+		if (isStored()) {
+			getStore().setMoveRight(getSlot(), moveRight);
+		}
 	}
 }